@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parse throughput and comparison cost of {@link ComparableVersion}
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComparableVersionBenchmark {
+
+    @Param({"semver", "snapshot", "v-prefixed", "date", "long-numeric"})
+    public String corpus;
+
+    private String[] versions;
+    private ComparableVersion[] parsed;
+    private byte[][] sortKeys;
+    private int index;
+
+    @Setup
+    public void setup() {
+        versions = VersionCorpus.get(corpus);
+        parsed = new ComparableVersion[versions.length];
+        sortKeys = new byte[versions.length][];
+        for (int i = 0; i < versions.length; i++) {
+            parsed[i] = new ComparableVersion(versions[i]);
+            sortKeys[i] = parsed[i].toSortKey();
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (VersionCorpus.SIZE - 1);
+        return index;
+    }
+
+    @Benchmark
+    public ComparableVersion parse() {
+        return new ComparableVersion(versions[next()]);
+    }
+
+    @Benchmark
+    public int compareTo() {
+        final int i = next();
+        return parsed[i].compareTo(parsed[(i + 1) & (VersionCorpus.SIZE - 1)]);
+    }
+
+    @Benchmark
+    public int compareSortKeys() {
+        final int i = next();
+        return ComparableVersion.compareSortKeys(sortKeys[i], sortKeys[(i + 1) & (VersionCorpus.SIZE - 1)]);
+    }
+
+    @Benchmark
+    public byte[] toSortKey() {
+        return parsed[next()].toSortKey();
+    }
+}
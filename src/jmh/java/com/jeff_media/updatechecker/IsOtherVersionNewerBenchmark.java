@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link UpdateChecker#isOtherVersionNewer(String, String)}, once with a version pair that stays in the
+ * parsed version cache and once with more distinct versions than the cache can hold
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IsOtherVersionNewerBenchmark {
+
+    private String[] versions;
+    private int index;
+
+    @Setup
+    public void setup() {
+        versions = VersionCorpus.get("snapshot");
+    }
+
+    @Benchmark
+    public boolean samePair() {
+        return UpdateChecker.isOtherVersionNewer("3.0.4", "3.1.0-SNAPSHOT");
+    }
+
+    @Benchmark
+    public boolean distinctVersions() {
+        index = (index + 1) & (VersionCorpus.SIZE - 1);
+        return UpdateChecker.isOtherVersionNewer("3.0.4", versions[index]);
+    }
+}
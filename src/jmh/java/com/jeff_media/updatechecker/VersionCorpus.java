@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import java.util.Random;
+
+/**
+ * Deterministic version strings in the formats plugins commonly use
+ */
+final class VersionCorpus {
+
+    static final int SIZE = 4096;
+
+    private VersionCorpus() {
+    }
+
+    static String[] get(final String name) {
+        final Random random = new Random(name.hashCode());
+        final String[] versions = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            versions[i] = create(name, random);
+        }
+        return versions;
+    }
+
+    private static String create(final String name, final Random random) {
+        final String semver = random.nextInt(5) + "." + random.nextInt(30) + "." + random.nextInt(20);
+        switch (name) {
+            case "semver":
+                return semver;
+            case "snapshot":
+                return semver + (random.nextBoolean() ? "-SNAPSHOT" : "-beta" + random.nextInt(5));
+            case "v-prefixed":
+                return "v" + semver;
+            case "date":
+                return (2019 + random.nextInt(6)) + "." + (1 + random.nextInt(12)) + "." + (1 + random.nextInt(28)) + "-" + random.nextInt(10);
+            case "long-numeric":
+                return random.nextInt(5) + "." + (random.nextLong() >>> 1) + "." + (1_000_000_000 + random.nextInt(Integer.MAX_VALUE - 1_000_000_000));
+            default:
+                throw new IllegalArgumentException("Unknown corpus: " + name);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of the {@link VersionMapper} functions, fed from recorded API responses in src/jmh/resources/responses
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VersionMapperBenchmark {
+
+    private String spigot;
+    private String spiget;
+    private String githubReleases;
+    private String githubLatestRelease;
+    private String custom;
+
+    @Setup
+    public void setup() throws IOException {
+        spigot = load("spigot.json");
+        spiget = load("spiget.json");
+        githubReleases = load("github-releases.json");
+        githubLatestRelease = load("github-latest-release.json");
+        custom = load("custom.txt");
+    }
+
+    private static String load(final String name) throws IOException {
+        try (final InputStream input = VersionMapperBenchmark.class.getResourceAsStream("/responses/" + name)) {
+            if (input == null) {
+                throw new IOException("Missing recorded response: " + name);
+            }
+            try (final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                return reader.lines().collect(Collectors.joining("\n"));
+            }
+        }
+    }
+
+    private static BufferedReader reader(final String body) {
+        return new BufferedReader(new StringReader(body));
+    }
+
+    @Benchmark
+    public String spigot() throws IOException {
+        return VersionMapper.SPIGOT.apply(reader(spigot));
+    }
+
+    @Benchmark
+    public String spiget() throws IOException {
+        return VersionMapper.SPIGET.apply(reader(spiget));
+    }
+
+    @Benchmark
+    public String githubReleaseTag() throws IOException {
+        return VersionMapper.GITHUB_RELEASE_TAG.apply(reader(githubReleases));
+    }
+
+    @Benchmark
+    public String githubLatestReleaseTag() throws IOException {
+        return VersionMapper.GITHUB_LATEST_RELEASE_TAG.apply(reader(githubLatestRelease));
+    }
+
+    @Benchmark
+    public String trimFirstLine() throws IOException {
+        return VersionMapper.TRIM_FIRST_LINE.apply(reader(custom));
+    }
+}
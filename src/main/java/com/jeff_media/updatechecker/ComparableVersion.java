@@ -18,22 +18,46 @@
 
 package com.jeff_media.updatechecker;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
 import java.util.*;
 
 class ComparableVersion implements Comparable<ComparableVersion> {
-    private String value;
-    private ListItem items;
-
+    private final String value;
+    private final String canonical;
+    private final long[] packed;
+    private volatile ListItem items;
+
+    /**
+     * Parses the given version. Instances are immutable, so they can be shared through {@link #of(String)}.
+     */
     public ComparableVersion(final String version) {
-        this.parseVersion(version);
+        this.value = version;
+        this.canonical = version.toLowerCase(Locale.ENGLISH);
+        this.packed = PackedVersion.parse(this.canonical);
+        this.items = this.packed == null ? parseItems(this.canonical) : null;
     }
 
-    public final void parseVersion(String version) {
-        this.value = version;
-        this.items = new ListItem();
-        version = version.toLowerCase(Locale.ENGLISH);
-        ListItem list = this.items;
+    /**
+     * Returns the parsed version from the shared {@link VersionCache}, parsing it if it is not cached yet.
+     */
+    static ComparableVersion of(final String version) {
+        return VersionCache.getShared().get(version);
+    }
+
+    /**
+     * Returns the item tree. Packed versions only build it when compared against a version that could not be packed.
+     */
+    private ListItem getItems() {
+        if (this.items == null) {
+            this.items = parseItems(this.canonical);
+        }
+        return this.items;
+    }
+
+    private static ListItem parseItems(final String version) {
+        final ListItem items = new ListItem();
+        ListItem list = items;
         final Deque<Item> stack = new ArrayDeque<>();
         stack.push(list);
         boolean isDigit = false;
@@ -81,6 +105,7 @@ class ComparableVersion implements Comparable<ComparableVersion> {
             list = (ListItem) stack.pop();
             list.normalize();
         }
+        return items;
     }
 
     private static Item parseItem(final boolean isDigit, String buf) {
@@ -112,17 +137,31 @@ class ComparableVersion implements Comparable<ComparableVersion> {
 
     @Override
     public int compareTo(final ComparableVersion o) {
-        return this.items.compareTo(o.items);
+        if (this.packed != null && o.packed != null) {
+            return PackedVersion.compare(this.packed, this.canonical, o.packed, o.canonical);
+        }
+        return this.getItems().compareTo(o.getItems());
     }
 
     @Override
     public int hashCode() {
+        if (this.packed != null) {
+            return PackedVersion.hashCode(this.packed, this.canonical);
+        }
         return this.items.hashCode();
     }
 
     @Override
     public boolean equals(final Object o) {
-        return o instanceof ComparableVersion && this.items.equals(((ComparableVersion) o).items);
+        if (!(o instanceof ComparableVersion)) {
+            return false;
+        }
+        final ComparableVersion other = (ComparableVersion) o;
+        if (this.packed != null && other.packed != null) {
+            return PackedVersion.equals(this.packed, this.canonical, other.packed, other.canonical);
+        }
+        // Only versions with non-zero BigInteger segments are not packed, and those can never equal a packed one
+        return this.packed == null && other.packed == null && this.items.equals(other.items);
     }
 
     @Override
@@ -130,6 +169,254 @@ class ComparableVersion implements Comparable<ComparableVersion> {
         return this.value;
     }
 
+    /**
+     * Encodes this version into a binary sort key. Comparing two keys with {@link #compareSortKeys(byte[], byte[])}
+     * (unsigned lexicographic order) gives the same result as {@link #compareTo(ComparableVersion)}.
+     * <p>
+     * The only exceptions are pairs for which compareTo itself is not transitive, so that no sort order can agree with
+     * it. This happens when a missing item is compared against items of different types, e.g. "1" &lt; "1.sp" &lt;
+     * "1.0.alpha" &lt; "1", and for nested lists starting with a zero, e.g. compareTo considers "v0.0" equal to
+     * "v0.2.0" and to "v0.3.0".
+     */
+    byte[] toSortKey() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(this.value.length() + 8);
+        if (this.packed != null) {
+            writeSortKey(this.packed, this.canonical, 0, out);
+        } else {
+            writeSortKey(this.getItems(), out);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes the given version into a sort key without creating a ComparableVersion, see {@link #toSortKey()}
+     */
+    static byte[] toSortKey(final String version) {
+        final String canonical = version.toLowerCase(Locale.ENGLISH);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(version.length() + 8);
+        final long[] packed = PackedVersion.parse(canonical);
+        if (packed != null) {
+            writeSortKey(packed, canonical, 0, out);
+        } else {
+            writeSortKey(parseItems(canonical), out);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Compares two sort keys created by {@link #toSortKey()} byte by byte, treating bytes as unsigned.
+     */
+    static int compareSortKeys(final byte[] left, final byte[] right) {
+        final int length = Math.min(left.length, right.length);
+        for (int i = 0; i < length; i++) {
+            if (left[i] != right[i]) {
+                return (left[i] & 0xFF) < (right[i] & 0xFF) ? -1 : 1;
+            }
+        }
+        return Integer.compare(left.length, right.length);
+    }
+
+    // Sort key tags. Items that compare lower than a missing item sort before END, the others after it.
+    // Null items (0, "ga", ...) compare equal to a missing item, so they are tagged by the next non-null item in their list.
+    private static final int KEY_QUALIFIER_BEFORE_RELEASE = 0x01;
+    private static final int KEY_NULL_QUALIFIER_BEFORE_LOWER = 0x02;
+    private static final int KEY_LIST_BEFORE_RELEASE = 0x03;
+    private static final int KEY_NULL_NUMBER_BEFORE_LOWER = 0x04;
+    private static final int KEY_END = 0x05;
+    private static final int KEY_NULL_QUALIFIER_BEFORE_HIGHER = 0x06;
+    private static final int KEY_QUALIFIER_AFTER_RELEASE = 0x07;
+    private static final int KEY_LIST_AFTER_RELEASE = 0x08;
+    private static final int KEY_NULL_INT_BEFORE_HIGHER = 0x09;
+    private static final int KEY_INT = 0x0A;
+    private static final int KEY_NULL_LONG_BEFORE_HIGHER = 0x0B;
+    private static final int KEY_LONG = 0x0C;
+    private static final int KEY_NULL_BIGINTEGER_BEFORE_HIGHER = 0x0D;
+    private static final int KEY_BIGINTEGER = 0x0E;
+
+    private static void writeSortKey(final ListItem list, final ByteArrayOutputStream out) {
+        for (int i = 0; i < list.size(); i++) {
+            final Item item = list.get(i);
+            if (item instanceof ListItem) {
+                // A nested list is always the last item, so it simply continues the key
+                out.write(compareToNull(item) < 0 ? KEY_LIST_BEFORE_RELEASE : KEY_LIST_AFTER_RELEASE);
+                writeSortKey((ListItem) item, out);
+                return;
+            }
+            if (item.isNull()) {
+                final boolean beforeLower = nextNonNullCompareToNull(list, i + 1) < 0;
+                if (item instanceof StringItem) {
+                    out.write(beforeLower ? KEY_NULL_QUALIFIER_BEFORE_LOWER : KEY_NULL_QUALIFIER_BEFORE_HIGHER);
+                } else if (beforeLower) {
+                    out.write(KEY_NULL_NUMBER_BEFORE_LOWER);
+                    out.write(item instanceof IntItem ? 0 : item instanceof LongItem ? 1 : 2);
+                } else {
+                    out.write(item instanceof IntItem ? KEY_NULL_INT_BEFORE_HIGHER
+                            : item instanceof LongItem ? KEY_NULL_LONG_BEFORE_HIGHER : KEY_NULL_BIGINTEGER_BEFORE_HIGHER);
+                }
+            } else {
+                writeItem(item, out);
+            }
+        }
+        out.write(KEY_END);
+    }
+
+    /**
+     * Same as {@link #writeSortKey(ListItem, ByteArrayOutputStream)} for the list of packed tokens starting at the given
+     * index, so that packed versions never need their item tree
+     */
+    private static void writeSortKey(final long[] tokens, final String version, final int start, final ByteArrayOutputStream out) {
+        for (int i = start; i < tokens.length; i++) {
+            final long token = tokens[i];
+            final long kind = PackedVersion.kind(token);
+            if (kind == PackedVersion.LIST) {
+                out.write(compareToNull(tokens, i) < 0 ? KEY_LIST_BEFORE_RELEASE : KEY_LIST_AFTER_RELEASE);
+                writeSortKey(tokens, version, i + 1, out);
+                return;
+            }
+            if (PackedVersion.isNull(token)) {
+                final boolean beforeLower = nextNonNullCompareToNull(tokens, i + 1) < 0;
+                if (kind == PackedVersion.STRING) {
+                    out.write(beforeLower ? KEY_NULL_QUALIFIER_BEFORE_LOWER : KEY_NULL_QUALIFIER_BEFORE_HIGHER);
+                } else if (beforeLower) {
+                    out.write(KEY_NULL_NUMBER_BEFORE_LOWER);
+                    out.write(kind == PackedVersion.INT ? 0 : kind == PackedVersion.LONG ? 1 : 2);
+                } else {
+                    out.write(kind == PackedVersion.INT ? KEY_NULL_INT_BEFORE_HIGHER
+                            : kind == PackedVersion.LONG ? KEY_NULL_LONG_BEFORE_HIGHER : KEY_NULL_BIGINTEGER_BEFORE_HIGHER);
+                }
+            } else if (kind == PackedVersion.INT) {
+                out.write(KEY_INT);
+                writeLong(PackedVersion.payload(token), 4, out);
+            } else if (kind == PackedVersion.LONG) {
+                out.write(KEY_LONG);
+                writeLong(PackedVersion.payload(token), 8, out);
+            } else if (PackedVersion.isUnknownQualifier(token)) {
+                out.write(KEY_QUALIFIER_AFTER_RELEASE);
+                out.write(StringItem.QUALIFIERS.size());
+                final int qualifierStart = PackedVersion.qualifierStart(token);
+                writeString(version, qualifierStart, qualifierStart + PackedVersion.qualifierLength(token), out);
+            } else {
+                // Only zero is packed as BigInteger, so this is a known qualifier
+                final int index = (int) PackedVersion.payload(token);
+                out.write(index < StringItem.QUALIFIERS.indexOf("") ? KEY_QUALIFIER_BEFORE_RELEASE : KEY_QUALIFIER_AFTER_RELEASE);
+                out.write(index);
+            }
+        }
+        out.write(KEY_END);
+    }
+
+    /**
+     * Same as {@link #compareToNull(Item)} for the packed item at the given index
+     */
+    private static int compareToNull(final long[] tokens, final int index) {
+        if (PackedVersion.kind(tokens[index]) != PackedVersion.LIST) {
+            return PackedVersion.compareToNull(tokens[index]);
+        }
+        final int first = index + 1;
+        if (first == tokens.length) {
+            return 0;
+        }
+        if (PackedVersion.kind(tokens[first]) != PackedVersion.LIST && PackedVersion.isNull(tokens[first])) {
+            return nextNonNullCompareToNull(tokens, first + 1);
+        }
+        return compareToNull(tokens, first);
+    }
+
+    private static int nextNonNullCompareToNull(final long[] tokens, final int start) {
+        for (int i = start; i < tokens.length; i++) {
+            final int result = compareToNull(tokens, i);
+            if (result != 0 || PackedVersion.kind(tokens[i]) == PackedVersion.LIST) {
+                // A nested list is always the last item of its parent
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static int compareToNull(final Item item) {
+        if (item instanceof ListItem) {
+            final ListItem list = (ListItem) item;
+            if (list.isEmpty()) {
+                return 0;
+            }
+            final Item first = list.get(0);
+            // Unlike ListItem#compareTo(null), look past a leading null item so the key has a defined position
+            return first.isNull() && !(first instanceof ListItem) ? nextNonNullCompareToNull(list, 1) : compareToNull(first);
+        }
+        return item.compareTo(null);
+    }
+
+    private static int nextNonNullCompareToNull(final ListItem list, final int start) {
+        for (int i = start; i < list.size(); i++) {
+            final int result = compareToNull(list.get(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private static void writeItem(final Item item, final ByteArrayOutputStream out) {
+        if (item instanceof IntItem) {
+            out.write(KEY_INT);
+            writeLong(((IntItem) item).value, 4, out);
+        } else if (item instanceof LongItem) {
+            out.write(KEY_LONG);
+            writeLong(((LongItem) item).value, 8, out);
+        } else if (item instanceof BigIntegerItem) {
+            byte[] magnitude = ((BigIntegerItem) item).value.toByteArray();
+            if (magnitude[0] == 0) {
+                magnitude = Arrays.copyOfRange(magnitude, 1, magnitude.length);
+            }
+            out.write(KEY_BIGINTEGER);
+            writeLong(magnitude.length, 4, out);
+            out.write(magnitude, 0, magnitude.length);
+        } else {
+            final String qualifier = ((StringItem) item).value;
+            final int index = StringItem.QUALIFIERS.indexOf(qualifier);
+            if (index >= 0 && index < StringItem.QUALIFIERS.indexOf("")) {
+                out.write(KEY_QUALIFIER_BEFORE_RELEASE);
+                out.write(index);
+            } else {
+                out.write(KEY_QUALIFIER_AFTER_RELEASE);
+                if (index >= 0) {
+                    out.write(index);
+                } else {
+                    // Unknown qualifiers sort after all known ones, and lexically among themselves
+                    out.write(StringItem.QUALIFIERS.size());
+                    writeString(qualifier, 0, qualifier.length(), out);
+                }
+            }
+        }
+    }
+
+    private static void writeLong(final long value, final int bytes, final ByteArrayOutputStream out) {
+        for (int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift) & 0xFF);
+        }
+    }
+
+    /**
+     * Writes the UTF-16 code units big endian, escaping 0x00 as 0x00 0xFF and terminating with 0x00 0x01,
+     * so that shorter strings sort before longer ones starting with the same characters
+     */
+    private static void writeString(final String string, final int start, final int end, final ByteArrayOutputStream out) {
+        for (int i = start; i < end; i++) {
+            final char c = string.charAt(i);
+            writeEscaped(c >>> 8, out);
+            writeEscaped(c & 0xFF, out);
+        }
+        out.write(0x00);
+        out.write(0x01);
+    }
+
+    private static void writeEscaped(final int b, final ByteArrayOutputStream out) {
+        out.write(b);
+        if (b == 0) {
+            out.write(0xFF);
+        }
+    }
+
     private interface Item {
 
         int compareTo(final Item p0);
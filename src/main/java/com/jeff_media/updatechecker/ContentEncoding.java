@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes compressed HTTP response bodies
+ */
+final class ContentEncoding {
+
+    /**
+     * Value for the Accept-Encoding request header
+     */
+    static final String ACCEPTED = "gzip, deflate";
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * Wraps the response body so that it is decompressed while reading
+     *
+     * @param body     Response body as sent by the server
+     * @param encoding Value of the Content-Encoding response header, or null
+     * @return Decompressed response body
+     * @throws IOException if the body could not be read
+     */
+    static InputStream decode(InputStream body, @Nullable String encoding) throws IOException {
+        if (encoding == null) {
+            return body;
+        }
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body);
+            case "deflate":
+                return inflate(body);
+            default:
+                return body;
+        }
+    }
+
+    /**
+     * "deflate" should be zlib wrapped, but some servers send raw deflate data, so the zlib header is checked first
+     */
+    private static InputStream inflate(InputStream body) throws IOException {
+        final PushbackInputStream input = new PushbackInputStream(body, 2);
+        final byte[] header = new byte[2];
+        int read = 0;
+        while (read < 2) {
+            final int count = input.read(header, read, 2 - read);
+            if (count == -1) {
+                break;
+            }
+            read += count;
+        }
+        input.unread(header, 0, read);
+        final boolean zlib = read == 2 && (header[0] & 0x0F) == 8 && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+        final Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(input, inflater) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
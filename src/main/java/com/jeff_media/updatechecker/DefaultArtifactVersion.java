@@ -45,8 +45,17 @@ class DefaultArtifactVersion implements ArtifactVersion {
         return this.compareTo(new DefaultArtifactVersion(otherVersion.toString()));
     }
 
+    /**
+     * Encodes this version into a binary sort key that can be compared with {@link ComparableVersion#compareSortKeys(byte[], byte[])}
+     *
+     * @see ComparableVersion#toSortKey()
+     */
+    byte[] toSortKey() {
+        return this.comparable.toSortKey();
+    }
+
     public final void parseVersion(final String version) {
-        this.comparable = new ComparableVersion(version);
+        this.comparable = ComparableVersion.of(version);
     }
 
     @Override
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Latest version returned by a single request, together with the source that answered it and the size of its response
+ */
+final class FetchedVersion {
+
+    private final String version;
+    private final UpdateCheckSource source;
+    private final long compressedBytes;
+    private final long uncompressedBytes;
+
+    FetchedVersion(String version, @Nullable UpdateCheckSource source, long compressedBytes, long uncompressedBytes) {
+        this.version = version;
+        this.source = source;
+        this.compressedBytes = compressedBytes;
+        this.uncompressedBytes = uncompressedBytes;
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the source that returned the version
+     *
+     * @return Source, or null if the version came from a VersionSupplier or the shared cache
+     */
+    @Nullable UpdateCheckSource getSource() {
+        return source;
+    }
+
+    long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the tag names from a GitHub releases response without building a JSON tree. Release bodies and asset lists
+ * are skipped while streaming, and reading stops as soon as the wanted release was found.
+ */
+final class GitHubReleases {
+
+    private GitHubReleases() {
+    }
+
+    /**
+     * Reads the tag of the first release that is not a draft
+     *
+     * @param reader          GitHub releases response
+     * @param skipPrereleases Whether prereleases should be skipped, too
+     * @return Tag of the first matching release
+     * @throws IOException if the response could not be read or contains no matching release
+     */
+    static String readFirstTag(Reader reader, boolean skipPrereleases) throws IOException {
+        final JsonReader json = new JsonReader(reader);
+        json.beginArray();
+        while (json.hasNext()) {
+            final String tag = readTag(json, skipPrereleases);
+            if (tag != null) {
+                // The remaining releases are never read
+                return tag;
+            }
+        }
+        json.endArray();
+        throw new IOException("Could not check for updates: no GitHub release found.");
+    }
+
+    /**
+     * Reads the tag of a single release, as returned by the latest release API
+     *
+     * @param reader GitHub release response
+     * @return Tag of the release
+     * @throws IOException if the response could not be read or is a draft
+     */
+    static String readSingleTag(Reader reader) throws IOException {
+        final String tag = readTag(new JsonReader(reader), false);
+        if (tag == null) {
+            throw new IOException("Could not check for updates: no GitHub release found.");
+        }
+        return tag;
+    }
+
+    /**
+     * Reads a single release object. Returns as soon as the release is known to match, leaving the reader inside the object.
+     *
+     * @return Tag of the release, or null if it doesn't match
+     */
+    private static String readTag(JsonReader json, boolean skipPrereleases) throws IOException {
+        String tag = null;
+        boolean draftKnown = false;
+        boolean prereleaseKnown = !skipPrereleases;
+        boolean skipped = false;
+        json.beginObject();
+        while (json.hasNext()) {
+            final String name = json.nextName();
+            if (skipped) {
+                json.skipValue();
+                continue;
+            }
+            if (name.equals("tag_name") && json.peek() == JsonToken.STRING) {
+                tag = json.nextString();
+            } else if (name.equals("draft") && json.peek() == JsonToken.BOOLEAN) {
+                skipped = json.nextBoolean();
+                draftKnown = true;
+            } else if (skipPrereleases && name.equals("prerelease") && json.peek() == JsonToken.BOOLEAN) {
+                skipped = json.nextBoolean();
+                prereleaseKnown = true;
+            } else {
+                json.skipValue();
+            }
+            if (!skipped && tag != null && draftKnown && prereleaseKnown) {
+                return tag;
+            }
+        }
+        json.endObject();
+        return skipped ? null : tag;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Queries several endpoints for the same plugin and returns the first valid answer. The first endpoint is queried
+ * right away, every further endpoint is only queried when all previous ones failed or did not answer within the
+ * hedge delay. Requests that are still running once a version was found are cancelled.
+ */
+final class HedgedFetch {
+
+    @FunctionalInterface
+    interface Attempt {
+        /**
+         * Requests the latest version from the given endpoint
+         *
+         * @param endpoint Endpoint to query
+         * @param call     Receives the started request, so it can be aborted when the attempt is cancelled
+         * @return Latest version returned by the endpoint
+         * @throws IOException if the request failed
+         */
+        FetchedVersion fetch(SourceEndpoint endpoint, Call call) throws IOException;
+    }
+
+    /**
+     * One attempt of a race. It is only marked as cancelled when the race aborts it because another endpoint answered
+     * first or the waiting thread was interrupted, so the attempt can tell this apart from its own failures.
+     */
+    static final class Call {
+        private final AtomicReference<HttpTransport.Exchange> exchange = new AtomicReference<>();
+        private volatile boolean cancelled = false;
+
+        /**
+         * Stores the started request, so it can be aborted when the attempt is cancelled
+         *
+         * @param started Started request
+         * @throws InterruptedIOException if the attempt was already cancelled. The request is aborted then.
+         */
+        void setExchange(HttpTransport.Exchange started) throws InterruptedIOException {
+            exchange.set(started);
+            if (cancelled) {
+                abort();
+                throw new InterruptedIOException("Update check was cancelled");
+            }
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void cancel() {
+            cancelled = true;
+            abort();
+        }
+
+        private void abort() {
+            final HttpTransport.Exchange started = exchange.getAndSet(null);
+            if (started != null) {
+                started.abort();
+            }
+        }
+    }
+
+    private HedgedFetch() {
+    }
+
+    /**
+     * Races the given endpoints
+     *
+     * @param executor   Executor that performs the requests
+     * @param endpoints  Endpoints in order of preference
+     * @param hedgeDelay Time in milliseconds to wait for an endpoint before querying the next one as well, 0 to query all at once
+     * @param attempt    Performs a single request
+     * @return First valid version returned by any endpoint
+     * @throws IOException the last failure if all endpoints failed
+     */
+    static FetchedVersion race(Executor executor, List<SourceEndpoint> endpoints, long hedgeDelay, Attempt attempt) throws IOException {
+        final CompletionService<FetchedVersion> completionService = new ExecutorCompletionService<>(executor);
+        final List<Future<FetchedVersion>> futures = new ArrayList<>(endpoints.size());
+        final List<Call> calls = new ArrayList<>(endpoints.size());
+        IOException failure = null;
+        int finished = 0;
+        try {
+            start(endpoints, attempt, completionService, futures, calls);
+            while (finished < endpoints.size()) {
+                final Future<FetchedVersion> done;
+                if (futures.size() < endpoints.size()) {
+                    done = hedgeDelay > 0 ? completionService.poll(hedgeDelay, TimeUnit.MILLISECONDS) : completionService.poll();
+                    if (done == null) {
+                        start(endpoints, attempt, completionService, futures, calls);
+                        continue;
+                    }
+                } else {
+                    done = completionService.take();
+                }
+                finished++;
+                try {
+                    return done.get();
+                } catch (ExecutionException exception) {
+                    failure = toIOException(exception.getCause());
+                    // Don't wait for the hedge delay when the running endpoint already failed
+                    if (futures.size() < endpoints.size() && futures.size() == finished) {
+                        start(endpoints, attempt, completionService, futures, calls);
+                    }
+                }
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the update check");
+        } finally {
+            for (int i = 0; i < futures.size(); i++) {
+                final Future<FetchedVersion> future = futures.get(i);
+                if (!future.isDone()) {
+                    calls.get(i).cancel();
+                    future.cancel(true);
+                }
+            }
+        }
+        throw failure;
+    }
+
+    private static void start(List<SourceEndpoint> endpoints, Attempt attempt, CompletionService<FetchedVersion> completionService,
+                              List<Future<FetchedVersion>> futures, List<Call> calls) {
+        final SourceEndpoint endpoint = endpoints.get(futures.size());
+        final Call call = new Call();
+        calls.add(call);
+        futures.add(completionService.submit(() -> {
+            final FetchedVersion fetched = attempt.fetch(endpoint, call);
+            if (fetched == null || fetched.getVersion() == null || fetched.getVersion().trim().isEmpty()) {
+                throw new IOException(endpoint + " did not return a version");
+            }
+            return fetched;
+        }));
+    }
+
+    private static IOException toIOException(Throwable throwable) {
+        if (throwable instanceof IOException) {
+            return (IOException) throwable;
+        }
+        return new IOException(throwable);
+    }
+}
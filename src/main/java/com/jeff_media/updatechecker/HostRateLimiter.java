@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket per host, shared by all UpdateCheckers. Every request takes one token, and one token is refilled every
+ * {@link #REFILL_INTERVAL} up to {@link #CAPACITY}. When a server reports its own quota through the X-RateLimit-Remaining
+ * and X-RateLimit-Reset headers, or asks to retry later through Retry-After, requests to that host are held back until
+ * the given time.
+ * <p>
+ * The buckets are kept by the {@link RateLimitService}, so that plugins that shade their own copy of the UpdateChecker
+ * also share them. Until a service was found, every copy uses its own buckets.
+ */
+final class HostRateLimiter {
+
+    static final int CAPACITY = 30;
+    static final long REFILL_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Map<String, Bucket> BUCKETS = new ConcurrentHashMap<>();
+    // X-RateLimit-Reset values below this are a number of seconds instead of an epoch timestamp
+    private static final long MAX_RESET_DELTA = TimeUnit.DAYS.toSeconds(365);
+
+    private final String host;
+
+    private HostRateLimiter(String host) {
+        this.host = host;
+    }
+
+    static HostRateLimiter forUrl(String url) {
+        String host;
+        try {
+            host = new URL(url).getHost().toLowerCase(Locale.ROOT);
+        } catch (MalformedURLException exception) {
+            host = url;
+        }
+        return new HostRateLimiter(host);
+    }
+
+    String getHost() {
+        return host;
+    }
+
+    /**
+     * Takes a token if a request to this host is allowed right now
+     *
+     * @param now Current time in milliseconds
+     * @return 0 if the request is allowed, otherwise the time in milliseconds when the next request will be allowed
+     */
+    long tryAcquire(long now) {
+        return RateLimitService.call(createMessage("tryAcquire", now));
+    }
+
+    /**
+     * Gets when the next request to this host will be allowed, without taking a token
+     *
+     * @param now Current time in milliseconds
+     * @return 0 if a request is allowed right now, otherwise the time in milliseconds when it will be allowed
+     */
+    long getAllowedAt(long now) {
+        return RateLimitService.call(createMessage("getAllowedAt", now));
+    }
+
+    /**
+     * Reads the rate limit headers of a response
+     *
+     * @param response Response from this host
+     * @param now      Current time in milliseconds
+     * @return 0 if the response is not a rate limit error, otherwise the time in milliseconds when requests will be allowed again
+     * @throws IOException if the response could not be read
+     */
+    long update(HttpTransport.Exchange response, long now) throws IOException {
+        final int status = response.getStatusCode();
+        final long retryAfter = parseRetryAfter(response.getHeader("Retry-After"), now);
+        final long remaining = parseLong(response.getHeader("X-RateLimit-Remaining"));
+        final Map<String, Object> message = createMessage("update", now);
+        message.put("retryAfter", retryAfter);
+        message.put("remaining", remaining);
+        message.put("reset", parseReset(response.getHeader("X-RateLimit-Reset"), now));
+        message.put("limited", status == 429 || (status == 403 && remaining == 0) || (status == 503 && retryAfter > 0));
+        return RateLimitService.call(message);
+    }
+
+    private Map<String, Object> createMessage(String action, long now) {
+        final Map<String, Object> message = new HashMap<>();
+        message.put("action", action);
+        message.put("host", host);
+        message.put("now", now);
+        return message;
+    }
+
+    /**
+     * Applies a request of {@link RateLimitService} to the buckets of this copy
+     *
+     * @param message Request, see {@link RateLimitService}
+     * @return Result of the request
+     */
+    static long handle(Map<String, Object> message) {
+        final Bucket bucket = BUCKETS.computeIfAbsent((String) message.get("host"), host -> new Bucket());
+        final long now = (Long) message.get("now");
+        final Object action = message.get("action");
+        if ("tryAcquire".equals(action)) {
+            return bucket.tryAcquire(now);
+        }
+        if ("getAllowedAt".equals(action)) {
+            return bucket.getAllowedAt(now);
+        }
+        if ("update".equals(action)) {
+            return bucket.update(now, (Boolean) message.get("limited"), (Long) message.get("retryAfter"),
+                    (Long) message.get("remaining"), (Long) message.get("reset"));
+        }
+        throw new IllegalArgumentException("Unknown rate limit action: " + action);
+    }
+
+    private static long parseRetryAfter(String value, long now) {
+        if (value == null) {
+            return 0;
+        }
+        final long seconds = parseLong(value);
+        if (seconds >= 0) {
+            return now + TimeUnit.SECONDS.toMillis(seconds);
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException exception) {
+            return 0;
+        }
+    }
+
+    private static long parseReset(String value, long now) {
+        final long reset = parseLong(value);
+        if (reset < 0) {
+            return 0;
+        }
+        if (reset < MAX_RESET_DELTA) {
+            return now + TimeUnit.SECONDS.toMillis(reset);
+        }
+        return TimeUnit.SECONDS.toMillis(reset);
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException exception) {
+            return -1;
+        }
+    }
+
+    private static final class Bucket {
+        private double tokens = CAPACITY;
+        private long lastRefill = System.currentTimeMillis();
+        private long blockedUntil = 0;
+
+        synchronized long tryAcquire(long now) {
+            final long allowedAt = getAllowedAt(now);
+            if (allowedAt == 0) {
+                tokens--;
+            }
+            return allowedAt;
+        }
+
+        synchronized long getAllowedAt(long now) {
+            refill(now);
+            if (now < blockedUntil) {
+                return blockedUntil;
+            }
+            if (tokens >= 1) {
+                return 0;
+            }
+            return now + (long) Math.ceil((1 - tokens) * REFILL_INTERVAL);
+        }
+
+        synchronized long update(long now, boolean limited, long retryAfter, long remaining, long reset) {
+            refill(now);
+            if (remaining >= 0) {
+                tokens = Math.min(tokens, remaining);
+                if (remaining == 0 && reset > now) {
+                    blockedUntil = Math.max(blockedUntil, reset);
+                }
+            }
+            if (retryAfter > now) {
+                blockedUntil = Math.max(blockedUntil, retryAfter);
+            }
+            if (!limited) {
+                return 0;
+            }
+            if (blockedUntil <= now) {
+                blockedUntil = now + REFILL_INTERVAL;
+            }
+            return blockedUntil;
+        }
+
+        private void refill(long now) {
+            if (now > lastRefill) {
+                tokens = Math.min(CAPACITY, tokens + (double) (now - lastRefill) / REFILL_INTERVAL);
+                lastRefill = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Sends the HTTP requests of all UpdateCheckers. On Java 11 and newer, this uses one shared java.net.http.HttpClient
+ * that speaks HTTP/2, so requests to the same host share one multiplexed connection. On Java 8, it falls back to
+ * HttpURLConnection.
+ */
+interface HttpTransport {
+
+    /**
+     * Starts a GET request. The request is sent asynchronously if the transport supports it, {@link Exchange#getStatusCode()}
+     * waits for the response.
+     *
+     * @param url     URL to request
+     * @param headers Request headers
+     * @param timeout Timeout in milliseconds, or 0 to use Java's default value
+     * @return Exchange for the request
+     * @throws IOException if the request could not be started
+     */
+    Exchange send(String url, Map<String, String> headers, int timeout) throws IOException;
+
+    /**
+     * Gets the transport to use on this Java version
+     *
+     * @return HttpClient based transport on Java 11+, otherwise HttpURLConnection based transport
+     */
+    static HttpTransport getDefault() {
+        return Holder.DEFAULT;
+    }
+
+    /**
+     * A single request and its response
+     */
+    interface Exchange {
+
+        /**
+         * Waits for the response and returns its status code
+         *
+         * @return HTTP status code
+         * @throws IOException if the request failed or was aborted
+         */
+        int getStatusCode() throws IOException;
+
+        /**
+         * Waits for the response and returns the first value of a response header
+         *
+         * @param name Case-insensitive header name
+         * @return Header value, or null if the header is missing
+         * @throws IOException if the request failed or was aborted
+         */
+        @Nullable
+        String getHeader(String name) throws IOException;
+
+        /**
+         * Waits for the response and returns its body
+         *
+         * @return Response body
+         * @throws IOException if the request failed or was aborted, or if the status code is 400 or higher
+         */
+        InputStream getBody() throws IOException;
+
+        /**
+         * Aborts the request from another thread and closes the connection, if possible. Threads waiting for the
+         * response or reading the body will get an IOException.
+         */
+        void abort();
+    }
+
+    final class Holder {
+        private static final HttpTransport DEFAULT = create();
+
+        private Holder() {
+        }
+
+        private static HttpTransport create() {
+            try {
+                Class.forName("java.net.http.HttpClient");
+                // Built from our own class name, so it stays correct when the package is relocated
+                final String name = HttpTransport.class.getName().replace("HttpTransport", "HttpClientTransport");
+                return (HttpTransport) Class.forName(name).getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException ignored) {
+                // Java 8, or the jar was built without the Java 11 sources
+                return new UrlConnectionTransport();
+            }
+        }
+    }
+}
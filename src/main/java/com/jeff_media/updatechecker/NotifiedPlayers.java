@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Remembers which players were already told about the latest version, and when. Only the players notified about the
+ * current latest version are kept, a new version starts with an empty set. Stored in a small binary file in the
+ * plugin's data folder, which is written asynchronously.
+ */
+final class NotifiedPlayers {
+
+    private static final int FORMAT = 1;
+
+    private final File file;
+    private final Logger logger;
+    private final Map<UUID, Long> notified = new HashMap<>();
+    private String version = null;
+    private boolean loaded = false;
+    private boolean saveScheduled = false;
+    private final Object saveLock = new Object();
+
+    NotifiedPlayers(File dataFolder, String resourceKey, Logger logger) {
+        this.file = new File(dataFolder, "updatechecker-notified-" + Integer.toHexString(resourceKey.hashCode()) + ".dat");
+        this.logger = logger;
+    }
+
+    /**
+     * Reads the file on the registry executor, so that the first player joining doesn't read it on the main thread
+     */
+    void preload() {
+        UpdateCheckerRegistry.getExecutor().execute(() -> {
+            synchronized (this) {
+                load();
+            }
+        });
+    }
+
+    /**
+     * Checks whether the player was already told about the given version
+     *
+     * @param player        UUID of the player
+     * @param latestVersion Latest version
+     * @param now           Current time in milliseconds
+     * @param renotifyAfter Time in milliseconds after which the player is told again, or 0 to never tell again
+     * @return true if the player doesn't need to be told about this version
+     */
+    synchronized boolean wasNotified(UUID player, String latestVersion, long now, long renotifyAfter) {
+        load();
+        if (!latestVersion.equals(version)) {
+            return false;
+        }
+        final Long notifiedAt = notified.get(player);
+        return notifiedAt != null && (renotifyAfter <= 0 || now - notifiedAt < renotifyAfter);
+    }
+
+    synchronized void markNotified(UUID player, String latestVersion, long now) {
+        load();
+        if (!latestVersion.equals(version)) {
+            notified.clear();
+            version = latestVersion;
+        }
+        notified.put(player, now);
+        if (!saveScheduled) {
+            saveScheduled = true;
+            UpdateCheckerRegistry.getExecutor().execute(this::save);
+        }
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        if (!file.isFile()) return;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (input.readInt() != FORMAT) return;
+            version = input.readUTF();
+            final int size = input.readInt();
+            for (int i = 0; i < size; i++) {
+                notified.put(new UUID(input.readLong(), input.readLong()), input.readLong());
+            }
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Could not read " + file.getName(), exception);
+        }
+    }
+
+    private void save() {
+        // Writes one after another, and the snapshot is taken inside the lock, so an older snapshot never overwrites a newer one
+        synchronized (saveLock) {
+            final String version;
+            final Map<UUID, Long> snapshot;
+            synchronized (this) {
+                saveScheduled = false;
+                version = this.version;
+                snapshot = new HashMap<>(notified);
+            }
+            write(version, snapshot);
+        }
+    }
+
+    private void write(String version, Map<UUID, Long> snapshot) {
+        final File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                output.writeInt(FORMAT);
+                output.writeUTF(version);
+                output.writeInt(snapshot.size());
+                for (Map.Entry<UUID, Long> entry : snapshot.entrySet()) {
+                    output.writeLong(entry.getKey().getMostSignificantBits());
+                    output.writeLong(entry.getKey().getLeastSignificantBits());
+                    output.writeLong(entry.getValue());
+                }
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Could not write " + file.getName(), exception);
+        }
+    }
+}
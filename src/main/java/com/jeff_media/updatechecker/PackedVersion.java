@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import java.util.Arrays;
+
+/**
+ * Flat token representation of a {@link ComparableVersion}.
+ * <p>
+ * The item tree built by ComparableVersion is always a chain: every nested list is the last element of its parent.
+ * That allows storing the normalized tree as a single long[] where each token is one item and a {@link #LIST} token
+ * marks the start of the nested list, which runs until the end of the array. Each token holds its kind in the upper
+ * bits and its payload (numeric value, qualifier ordinal or a region of the version string) in the lower bits.
+ * Kinds are numbered so that comparing two tokens of different kinds by their raw value gives the same result as
+ * comparing the items they represent.
+ * <p>
+ * Versions containing non-zero segments that need a BigInteger are not packed, ComparableVersion falls back to its
+ * item tree for those.
+ */
+final class PackedVersion {
+
+    static final long STRING = 1;
+    static final long LIST = 2;
+    static final long INT = 3;
+    static final long LONG = 4;
+    static final long BIGINT = 5;
+
+    private static final int KIND_SHIFT = 60;
+    private static final long PAYLOAD_MASK = (1L << KIND_SHIFT) - 1;
+
+    // Unknown qualifiers point into the version string: flag | offset << 28 | length
+    private static final long UNKNOWN_QUALIFIER = 1L << 58;
+    private static final int REGION_BITS = 28;
+    private static final long REGION_MASK = (1L << REGION_BITS) - 1;
+
+    private static final String[] QUALIFIERS = {"alpha", "beta", "milestone", "rc", "snapshot", "", "sp"};
+    private static final int RELEASE_INDEX = 5;
+
+    private PackedVersion() {
+    }
+
+    /**
+     * Parses an already lower-cased version string in a single pass.
+     *
+     * @param version lower-cased version string
+     * @return the packed tokens, or null if the version can only be represented by the item tree
+     */
+    static long[] parse(final String version) {
+        final int length = version.length();
+        if (length > REGION_MASK) {
+            return null;
+        }
+        // Every char produces at most two tokens (an item and a list marker)
+        final long[] tokens = new long[length * 2 + 1];
+        int size = 0;
+        boolean isDigit = false;
+        int startIndex = 0;
+        for (int i = 0; i < length; ++i) {
+            final char c = version.charAt(i);
+            if (c == '.' || c == '-') {
+                if (i == startIndex) {
+                    tokens[size++] = token(INT, 0);
+                } else {
+                    final long item = parseItem(version, isDigit, startIndex, i, false);
+                    if (item < 0) {
+                        return null;
+                    }
+                    tokens[size++] = item;
+                }
+                startIndex = i + 1;
+                if (c == '-') {
+                    tokens[size++] = token(LIST, 0);
+                }
+            } else if (Character.isDigit(c)) {
+                if (!isDigit && i > startIndex) {
+                    tokens[size++] = parseItem(version, false, startIndex, i, true);
+                    startIndex = i;
+                    tokens[size++] = token(LIST, 0);
+                }
+                isDigit = true;
+            } else {
+                if (isDigit && i > startIndex) {
+                    final long item = parseItem(version, true, startIndex, i, false);
+                    if (item < 0) {
+                        return null;
+                    }
+                    tokens[size++] = item;
+                    startIndex = i;
+                    tokens[size++] = token(LIST, 0);
+                }
+                isDigit = false;
+            }
+        }
+        if (length > startIndex) {
+            final long item = parseItem(version, isDigit, startIndex, length, false);
+            if (item < 0) {
+                return null;
+            }
+            tokens[size++] = item;
+        }
+        return normalize(tokens, size);
+    }
+
+    /**
+     * Same as ListItem#normalize applied to every list of the chain, deepest first: trailing null items are removed
+     * from each list, and nested lists that end up empty are dropped together with their marker.
+     */
+    private static long[] normalize(final long[] tokens, final int size) {
+        // Find the trimmed end of every list, and the deepest list that is still non-empty
+        int write = 0;
+        int keptSize = 0;
+        int listStart = 0;
+        for (int i = 0; i <= size; i++) {
+            if (i == size || kind(tokens[i]) == LIST) {
+                int end = i;
+                while (end > listStart && isNull(tokens[end - 1])) {
+                    end--;
+                }
+                if (listStart > 0) {
+                    tokens[write++] = token(LIST, 0);
+                }
+                for (int j = listStart; j < end; j++) {
+                    tokens[write++] = tokens[j];
+                }
+                if (end > listStart) {
+                    keptSize = write;
+                }
+                listStart = i + 1;
+            }
+        }
+        return Arrays.copyOf(tokens, keptSize);
+    }
+
+    private static long parseItem(final String version, final boolean isDigit, final int start, final int end, final boolean followedByDigit) {
+        if (!isDigit) {
+            return token(STRING, qualifier(version, start, end, followedByDigit));
+        }
+        int leadingZeroes = 0;
+        while (start + leadingZeroes < end && version.charAt(start + leadingZeroes) == '0') {
+            leadingZeroes++;
+        }
+        // Same as stripLeadingZeroes(): a segment consisting only of zeroes keeps all of them
+        final int digitsStart = leadingZeroes == end - start ? start : start + leadingZeroes;
+        final int digits = end - digitsStart;
+        if (digits > 18) {
+            // Only zero can be packed, it is a null item just like IntItem.ZERO
+            return digitsStart == start && leadingZeroes == digits ? token(BIGINT, 0) : -1;
+        }
+        long value = 0;
+        for (int i = digitsStart; i < end; i++) {
+            value = value * 10 + Character.digit(version.charAt(i), 10);
+        }
+        return token(digits <= 9 ? INT : LONG, value);
+    }
+
+    private static long qualifier(final String version, final int start, final int end, final boolean followedByDigit) {
+        final int length = end - start;
+        if (followedByDigit && length == 1) {
+            switch (version.charAt(start)) {
+                case 'a':
+                    return 0;
+                case 'b':
+                    return 1;
+                case 'm':
+                    return 2;
+            }
+        }
+        if (regionEquals(version, start, length, "ga") || regionEquals(version, start, length, "final") || regionEquals(version, start, length, "release")) {
+            return RELEASE_INDEX;
+        }
+        if (regionEquals(version, start, length, "cr")) {
+            return 3;
+        }
+        for (int i = 0; i < QUALIFIERS.length; i++) {
+            if (regionEquals(version, start, length, QUALIFIERS[i])) {
+                return i;
+            }
+        }
+        return UNKNOWN_QUALIFIER | ((long) start << REGION_BITS) | length;
+    }
+
+    private static boolean regionEquals(final String version, final int start, final int length, final String qualifier) {
+        return length == qualifier.length() && version.regionMatches(start, qualifier, 0, length);
+    }
+
+    static long token(final long kind, final long payload) {
+        return kind << KIND_SHIFT | payload;
+    }
+
+    static long kind(final long token) {
+        return token >>> KIND_SHIFT;
+    }
+
+    static long payload(final long token) {
+        return token & PAYLOAD_MASK;
+    }
+
+    static boolean isUnknownQualifier(final long token) {
+        return kind(token) == STRING && (token & UNKNOWN_QUALIFIER) != 0;
+    }
+
+    static int qualifierStart(final long token) {
+        return (int) ((token >>> REGION_BITS) & REGION_MASK);
+    }
+
+    static int qualifierLength(final long token) {
+        return (int) (token & REGION_MASK);
+    }
+
+    static boolean isNull(final long token) {
+        final long kind = kind(token);
+        if (kind == STRING) {
+            return payload(token) == RELEASE_INDEX;
+        }
+        return kind != LIST && payload(token) == 0;
+    }
+
+    /**
+     * Same as Item#compareTo(null) for a single non-list item
+     */
+    static int compareToNull(final long token) {
+        if (kind(token) == STRING) {
+            if ((token & UNKNOWN_QUALIFIER) != 0) {
+                return 1;
+            }
+            return Long.compare(payload(token), RELEASE_INDEX);
+        }
+        return payload(token) == 0 ? 0 : 1;
+    }
+
+    /**
+     * Compares the remaining elements of the current list against null, like ListItem#compareTo does when the other
+     * list has run out of elements. A nested list only compares its first element against null.
+     */
+    private static int compareRemainingToNull(final long[] tokens, int index) {
+        while (index < tokens.length) {
+            if (kind(tokens[index]) == LIST) {
+                index++;
+                while (index < tokens.length && kind(tokens[index]) == LIST) {
+                    index++;
+                }
+                return index < tokens.length ? compareToNull(tokens[index]) : 0;
+            }
+            final int result = compareToNull(tokens[index]);
+            if (result != 0) {
+                return result;
+            }
+            index++;
+        }
+        return 0;
+    }
+
+    /**
+     * Compares two packed versions. Gives the same sign as comparing their item trees.
+     */
+    static int compare(final long[] left, final String leftVersion, final long[] right, final String rightVersion) {
+        int i = 0;
+        while (true) {
+            if (i == left.length) {
+                return i == right.length ? 0 : -compareRemainingToNull(right, i);
+            }
+            if (i == right.length) {
+                return compareRemainingToNull(left, i);
+            }
+            final long l = left[i];
+            final long r = right[i];
+            if (isUnknownQualifier(l) || l != r) {
+                final long kind = kind(l);
+                if (kind != kind(r)) {
+                    return kind < kind(r) ? -1 : 1;
+                }
+                if (kind == STRING) {
+                    final int result = compareQualifiers(l, leftVersion, r, rightVersion);
+                    if (result != 0) {
+                        return result;
+                    }
+                } else {
+                    return Long.compare(payload(l), payload(r));
+                }
+            }
+            // Equal items, or both start a nested list: the nested list is the last element of both parents,
+            // so comparing it is the same as continuing with the next token
+            i++;
+        }
+    }
+
+    private static int compareQualifiers(final long left, final String leftVersion, final long right, final String rightVersion) {
+        final boolean leftUnknown = (left & UNKNOWN_QUALIFIER) != 0;
+        final boolean rightUnknown = (right & UNKNOWN_QUALIFIER) != 0;
+        if (!leftUnknown && !rightUnknown) {
+            return Long.compare(payload(left), payload(right));
+        }
+        // Unknown qualifiers are sorted after all known ones, and lexically among themselves
+        if (!leftUnknown) {
+            return -1;
+        }
+        if (!rightUnknown) {
+            return 1;
+        }
+        final int leftStart = qualifierStart(left);
+        final int leftLength = qualifierLength(left);
+        final int rightStart = qualifierStart(right);
+        final int rightLength = qualifierLength(right);
+        final int length = Math.min(leftLength, rightLength);
+        for (int i = 0; i < length; i++) {
+            final char l = leftVersion.charAt(leftStart + i);
+            final char r = rightVersion.charAt(rightStart + i);
+            if (l != r) {
+                return l < r ? -1 : 1;
+            }
+        }
+        return Integer.compare(leftLength, rightLength);
+    }
+
+    static boolean equals(final long[] left, final String leftVersion, final long[] right, final String rightVersion) {
+        if (left.length != right.length) {
+            return false;
+        }
+        for (int i = 0; i < left.length; i++) {
+            if (isUnknownQualifier(left[i]) && isUnknownQualifier(right[i])) {
+                if (compareQualifiers(left[i], leftVersion, right[i], rightVersion) != 0) {
+                    return false;
+                }
+            } else if (left[i] != right[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int hashCode(final long[] tokens, final String version) {
+        int hash = 1;
+        for (final long token : tokens) {
+            int element;
+            if (isUnknownQualifier(token)) {
+                element = 0;
+                final int start = qualifierStart(token);
+                final int end = start + qualifierLength(token);
+                for (int i = start; i < end; i++) {
+                    element = 31 * element + version.charAt(i);
+                }
+            } else {
+                element = (int) (token ^ token >>> 32);
+            }
+            hash = 31 * hash + element;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the rate limit buckets of {@link HostRateLimiter} for all plugins that shade their own copy of the
+ * UpdateChecker. The first copy registers itself in Bukkit's ServicesManager, all other copies find it there and send
+ * their requests to it, so all copies in the same server share one bucket per host.
+ * <p>
+ * Like {@link UpdateCheckService}, the provider is found by its simple class name and is only talked to through
+ * {@link Consumer} and maps of JDK types:
+ * <ul>
+ *     <li>{@code action}: "tryAcquire", "getAllowedAt" or "update"</li>
+ *     <li>{@code host}: host name</li>
+ *     <li>{@code now}: current time in milliseconds</li>
+ *     <li>{@code limited}, {@code retryAfter}, {@code remaining} and {@code reset}: the parsed response, only for "update"</li>
+ * </ul>
+ * The provider puts the result as {@link Long} under {@code result}. When the plugin of the provider is disabled, the
+ * next provider starts with full buckets.
+ */
+final class RateLimitService implements Consumer<Map<String, Object>> {
+
+    private static final String PROTOCOL = "protocol";
+    private static final int PROTOCOL_VERSION = 1;
+
+    private static RateLimitService provider = null;
+    private static volatile Consumer<Map<String, Object>> service = null;
+    private static Plugin servicePlugin = null;
+
+    private final Plugin plugin;
+
+    private RateLimitService(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Finds the provider of another copy, or registers this copy as provider
+     *
+     * @param plugin Plugin to register the provider for if there is none yet
+     */
+    static synchronized void join(Plugin plugin) {
+        if (service == null) {
+            resolve(plugin, null);
+        }
+    }
+
+    /**
+     * Called for every plugin that is being disabled, after its UpdateCheckers were unregistered. When the provider
+     * belongs to that plugin, this copy moves to another provider, or becomes the provider if it still has UpdateCheckers.
+     */
+    static synchronized void onPluginDisable(Plugin disabled) {
+        if (servicePlugin != disabled) {
+            return;
+        }
+        provider = null;
+        service = null;
+        servicePlugin = null;
+        final Iterator<UpdateChecker> remaining = UpdateCheckerRegistry.getAll().iterator();
+        if (remaining.hasNext()) {
+            resolve(remaining.next().getPlugin(), disabled);
+        }
+    }
+
+    private static void resolve(Plugin plugin, Plugin excluded) {
+        for (Class<?> known : Bukkit.getServicesManager().getKnownServices()) {
+            if (!known.getSimpleName().equals(RateLimitService.class.getSimpleName())) {
+                continue;
+            }
+            final RegisteredServiceProvider<?> registration = Bukkit.getServicesManager().getRegistration(known);
+            if (registration != null && registration.getPlugin() != excluded && registration.getProvider() instanceof Consumer) {
+                servicePlugin = registration.getPlugin();
+                //noinspection unchecked
+                service = (Consumer<Map<String, Object>>) registration.getProvider();
+                return;
+            }
+        }
+        provider = new RateLimitService(plugin);
+        Bukkit.getServicesManager().register(RateLimitService.class, provider, plugin, ServicePriority.Normal);
+        servicePlugin = plugin;
+        service = provider;
+    }
+
+    /**
+     * Sends a request to the provider. Uses the buckets of this copy if there is no provider yet, or if it doesn't
+     * understand the request.
+     *
+     * @param message Request
+     * @return Result of the request
+     */
+    static long call(Map<String, Object> message) {
+        final Consumer<Map<String, Object>> current = service;
+        if (current != null) {
+            message.put(PROTOCOL, PROTOCOL_VERSION);
+            current.accept(message);
+            final Object result = message.get("result");
+            if (result instanceof Long) {
+                return (Long) result;
+            }
+        }
+        return HostRateLimiter.handle(message);
+    }
+
+    @Override
+    public void accept(Map<String, Object> message) {
+        final Object protocol = message.get(PROTOCOL);
+        if (!(protocol instanceof Integer) || (Integer) protocol != PROTOCOL_VERSION) {
+            plugin.getLogger().warning("Ignoring rate limit service request using an unsupported protocol: " + protocol);
+            return;
+        }
+        message.put("result", HostRateLimiter.handle(message));
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Remembers when the latest version changed, to estimate how often a plugin is released. Only the last
+ * {@link #MAX_ENTRIES} releases are kept. Stored in the {@link UpdateCheckCache} as one line for the last seen version,
+ * followed by one "timestamp version" line per release.
+ */
+final class ReleaseHistory {
+
+    static final int MAX_ENTRIES = 16;
+    // Check about this many times within the expected time until the next release
+    private static final int CHECKS_PER_RELEASE = 10;
+
+    private final long[] times = new long[MAX_ENTRIES];
+    private final String[] versions = new String[MAX_ENTRIES];
+    private int size = 0;
+    private String lastSeenVersion = null;
+
+    /**
+     * Records the version returned by a successful check
+     *
+     * @param version Latest version
+     * @param now     Current time in milliseconds
+     * @return true if the version changed, false if it is the same as last time
+     */
+    synchronized boolean observe(String version, long now) {
+        final String previous = lastSeenVersion;
+        lastSeenVersion = version;
+        if (previous == null || previous.equals(version)) {
+            // The first version ever seen is not a release we observed
+            return previous == null;
+        }
+        if (size == MAX_ENTRIES) {
+            System.arraycopy(times, 1, times, 0, size - 1);
+            System.arraycopy(versions, 1, versions, 0, size - 1);
+            size--;
+        }
+        times[size] = now;
+        versions[size] = version;
+        size++;
+        return true;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the median time between two releases
+     *
+     * @return Median time between two releases in milliseconds, or 0 if less than two releases were seen
+     */
+    synchronized long getMedianGap() {
+        if (size < 2) {
+            return 0;
+        }
+        final long[] gaps = new long[size - 1];
+        for (int i = 1; i < size; i++) {
+            gaps[i - 1] = times[i] - times[i - 1];
+        }
+        Arrays.sort(gaps);
+        return gaps[gaps.length / 2];
+    }
+
+    /**
+     * Chooses how long to wait until the next check. Right after a release, the interval is short, and it grows the
+     * longer no new release was seen. When the usual time between releases is known, the interval grows only half as
+     * fast once that time has passed.
+     *
+     * @param now      Current time in milliseconds
+     * @param fallback Interval to use when no release was seen yet
+     * @param min      Minimum interval
+     * @param max      Maximum interval
+     * @return Interval in milliseconds
+     */
+    synchronized long chooseInterval(long now, long fallback, long min, long max) {
+        long interval = fallback;
+        if (size > 0) {
+            final long sinceLast = Math.max(0, now - times[size - 1]);
+            final long gap = getMedianGap();
+            final long expected = gap == 0 || sinceLast <= gap ? sinceLast : (gap + sinceLast) / 2;
+            interval = expected / CHECKS_PER_RELEASE;
+        }
+        return Math.max(min, Math.min(max, interval));
+    }
+
+    synchronized String serialize() {
+        final StringBuilder builder = new StringBuilder(lastSeenVersion == null ? "" : lastSeenVersion);
+        for (int i = 0; i < size; i++) {
+            builder.append('\n').append(times[i]).append(' ').append(versions[i]);
+        }
+        return builder.toString();
+    }
+
+    static ReleaseHistory parse(@Nullable String serialized) {
+        final ReleaseHistory history = new ReleaseHistory();
+        if (serialized == null || serialized.isEmpty()) {
+            return history;
+        }
+        final String[] lines = serialized.split("\n");
+        for (int i = 1; i < lines.length && history.size < MAX_ENTRIES; i++) {
+            final int space = lines[i].indexOf(' ');
+            if (space <= 0) {
+                continue;
+            }
+            try {
+                history.times[history.size] = Long.parseLong(lines[i].substring(0, space));
+            } catch (NumberFormatException exception) {
+                continue;
+            }
+            history.versions[history.size] = lines[i].substring(space + 1);
+            history.size++;
+        }
+        history.lastSeenVersion = lines[0].isEmpty() ? null : lines[0];
+        return history;
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Result cache shared by all servers and plugins on the same machine. The results are stored in a memory-mapped index
+ * file inside a shared directory, as a fixed-size open addressing hash table keyed by API link. Every access locks the
+ * file, so that only one process fetches a stale result while all others keep using the stored one. When there is no
+ * stored result yet, the others wait for the one that is fetching it.
+ * <p>
+ * Layout: a header (magic, format version) followed by {@link #SLOTS} slots of {@link #SLOT_SIZE} bytes each, holding
+ * the key hash, fetch time, lease expiry, the key and the latest version.
+ */
+final class SharedResultCache {
+
+    static final String FILE_NAME = "updatechecker-shared-cache.dat";
+
+    private static final int MAGIC = 0x53554343;
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOTS = 1024;
+    private static final int SLOT_SIZE = 1024;
+    private static final int MAX_PROBES = 16;
+
+    private static final int HASH_OFFSET = 0;
+    private static final int FETCHED_AT_OFFSET = 8;
+    private static final int LEASE_OFFSET = 16;
+    private static final int KEY_LENGTH_OFFSET = 24;
+    private static final int KEY_OFFSET = 26;
+    private static final int MAX_KEY_LENGTH = 640;
+    private static final int VERSION_LENGTH_OFFSET = KEY_OFFSET + MAX_KEY_LENGTH;
+    private static final int VERSION_OFFSET = VERSION_LENGTH_OFFSET + 2;
+    private static final int MAX_VERSION_LENGTH = SLOT_SIZE - VERSION_OFFSET;
+
+    private static final int LOCK_ATTEMPTS = 1000;
+    private static final long POLL_INTERVAL = 250;
+
+    private static final Map<File, SharedResultCache> INSTANCES = new HashMap<>();
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int references = 0;
+
+    private SharedResultCache(File file) throws IOException {
+        this.file = file;
+        final long size = HEADER_SIZE + (long) SLOTS * SLOT_SIZE;
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            this.channel = randomAccessFile.getChannel();
+            try (FileLock ignored = lock()) {
+                if (randomAccessFile.length() < size) {
+                    randomAccessFile.setLength(size);
+                }
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+                    for (int i = 0; i < size; i += 8) {
+                        buffer.putLong(i, 0);
+                    }
+                    buffer.putInt(0, MAGIC);
+                    buffer.putInt(4, FORMAT);
+                }
+            }
+        } catch (IOException | RuntimeException exception) {
+            randomAccessFile.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Opens the shared cache inside the given directory. Every directory is only opened once per plugin, and stays open
+     * until every caller has called {@link #close()}.
+     *
+     * @param directory Shared cache directory
+     * @return Shared cache
+     * @throws IOException if the index file could not be created or mapped
+     */
+    static SharedResultCache open(File directory) throws IOException {
+        final File file = new File(directory, FILE_NAME).getCanonicalFile();
+        synchronized (INSTANCES) {
+            SharedResultCache cache = INSTANCES.get(file);
+            if (cache == null) {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Could not create shared cache directory " + directory);
+                }
+                cache = new SharedResultCache(file);
+                INSTANCES.put(file, cache);
+            }
+            cache.references++;
+            return cache;
+        }
+    }
+
+    /**
+     * Releases the shared cache. The index file is closed once it was released as often as it was opened, e.g. when the
+     * last UpdateChecker using it is unregistered.
+     */
+    void close() {
+        synchronized (INSTANCES) {
+            if (--references > 0) {
+                return;
+            }
+            INSTANCES.remove(file);
+        }
+        // Waits for running lookups, the mapping itself is released once the buffer is garbage collected
+        synchronized (this) {
+            try {
+                randomAccessFile.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Looks up the result for the given key. When the stored result is older than the TTL and no other process is
+     * refreshing it, the caller gets a lease and is expected to fetch the result and {@link #put(String, String, long)} it,
+     * or {@link #release(String)} the lease if that failed. When there is no stored result yet and another process holds
+     * the lease, this waits until that process stored the result or its lease expired.
+     *
+     * @param key           API link
+     * @param ttl           Time in milliseconds a result is used without fetching it again
+     * @param leaseDuration Time in milliseconds other processes wait for the lease holder before fetching themselves
+     * @return Stored version that should be used, or null if the caller should fetch it
+     * @throws IOException if the index file could not be locked, or if the thread was interrupted while waiting
+     */
+    @Nullable String get(String key, long ttl, long leaseDuration) throws IOException {
+        while (true) {
+            final Lookup lookup = lookup(key, ttl, leaseDuration);
+            if (lookup.leaseHeldUntil == 0) {
+                return lookup.version;
+            }
+            try {
+                Thread.sleep(Math.max(1, Math.min(POLL_INTERVAL, lookup.leaseHeldUntil - System.currentTimeMillis())));
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the shared update check cache");
+            }
+        }
+    }
+
+    private synchronized Lookup lookup(String key, long ttl, long leaseDuration) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_LENGTH) {
+            return Lookup.FETCH;
+        }
+        final long hash = hash(keyBytes);
+        try (FileLock ignored = lock()) {
+            int slot = findSlot(hash, keyBytes);
+            if (slot < 0) {
+                return Lookup.FETCH;
+            }
+            final long now = System.currentTimeMillis();
+            if (buffer.getLong(slot + HASH_OFFSET) == 0) {
+                // Claim the empty slot, so that other processes know this key is being fetched
+                writeKey(slot, hash, keyBytes);
+                buffer.putLong(slot + LEASE_OFFSET, now + leaseDuration);
+                return Lookup.FETCH;
+            }
+            final String version = readVersion(slot);
+            if (version != null && now - buffer.getLong(slot + FETCHED_AT_OFFSET) < ttl) {
+                return new Lookup(version, 0);
+            }
+            final long lease = buffer.getLong(slot + LEASE_OFFSET);
+            if (lease > now) {
+                // Another process is already fetching it, keep using the stale version meanwhile or wait for the first one
+                return new Lookup(version, version == null ? lease : 0);
+            }
+            buffer.putLong(slot + LEASE_OFFSET, now + leaseDuration);
+            return Lookup.FETCH;
+        }
+    }
+
+    /**
+     * Releases the lease after the result could not be fetched, so that other processes don't wait for it
+     *
+     * @param key API link
+     * @throws IOException if the index file could not be locked
+     */
+    synchronized void release(String key) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_LENGTH) {
+            return;
+        }
+        final long hash = hash(keyBytes);
+        try (FileLock ignored = lock()) {
+            final int slot = findSlot(hash, keyBytes);
+            if (slot >= 0 && buffer.getLong(slot + HASH_OFFSET) != 0) {
+                buffer.putLong(slot + LEASE_OFFSET, 0);
+            }
+        }
+    }
+
+    /**
+     * Stores a freshly fetched result and releases the lease
+     *
+     * @param key       API link
+     * @param version   Latest version
+     * @param fetchedAt Time the version was fetched
+     * @throws IOException if the index file could not be locked
+     */
+    synchronized void put(String key, String version, long fetchedAt) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final byte[] versionBytes = version.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_LENGTH || versionBytes.length > MAX_VERSION_LENGTH) {
+            return;
+        }
+        final long hash = hash(keyBytes);
+        try (FileLock ignored = lock()) {
+            int slot = findSlot(hash, keyBytes);
+            if (slot < 0) {
+                slot = oldestSlot(hash);
+            }
+            writeKey(slot, hash, keyBytes);
+            buffer.putLong(slot + FETCHED_AT_OFFSET, fetchedAt);
+            buffer.putLong(slot + LEASE_OFFSET, 0);
+            buffer.putShort(slot + VERSION_LENGTH_OFFSET, (short) versionBytes.length);
+            for (int i = 0; i < versionBytes.length; i++) {
+                buffer.put(slot + VERSION_OFFSET + i, versionBytes[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the slot holding the given key, or else the first empty slot of its probe sequence
+     *
+     * @return Slot offset, or -1 if the key is not stored and there is no empty slot left
+     */
+    private int findSlot(long hash, byte[] keyBytes) {
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            final int slot = slotOffset(hash, probe);
+            final long slotHash = buffer.getLong(slot + HASH_OFFSET);
+            if (slotHash == 0 || (slotHash == hash && keyEquals(slot, keyBytes))) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the least recently used slot of the probe sequence, which is overwritten when all slots are taken
+     */
+    private int oldestSlot(long hash) {
+        int oldest = slotOffset(hash, 0);
+        long oldestTime = Long.MAX_VALUE;
+        for (int probe = 0; probe < MAX_PROBES; probe++) {
+            final int slot = slotOffset(hash, probe);
+            final long time = Math.max(buffer.getLong(slot + FETCHED_AT_OFFSET), buffer.getLong(slot + LEASE_OFFSET));
+            if (time < oldestTime) {
+                oldest = slot;
+                oldestTime = time;
+            }
+        }
+        return oldest;
+    }
+
+    private void writeKey(int slot, long hash, byte[] keyBytes) {
+        buffer.putLong(slot + HASH_OFFSET, hash);
+        buffer.putLong(slot + FETCHED_AT_OFFSET, 0);
+        buffer.putShort(slot + KEY_LENGTH_OFFSET, (short) keyBytes.length);
+        for (int i = 0; i < keyBytes.length; i++) {
+            buffer.put(slot + KEY_OFFSET + i, keyBytes[i]);
+        }
+        buffer.putShort(slot + VERSION_LENGTH_OFFSET, (short) 0);
+    }
+
+    private static int slotOffset(long hash, int probe) {
+        return HEADER_SIZE + (int) (((hash >>> 1) % SLOTS + probe) % SLOTS) * SLOT_SIZE;
+    }
+
+    private boolean keyEquals(int slot, byte[] keyBytes) {
+        if (buffer.getShort(slot + KEY_LENGTH_OFFSET) != keyBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < keyBytes.length; i++) {
+            if (buffer.get(slot + KEY_OFFSET + i) != keyBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private @Nullable String readVersion(int slot) {
+        final int length = buffer.getShort(slot + VERSION_LENGTH_OFFSET);
+        if (length <= 0 || length > MAX_VERSION_LENGTH) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(slot + VERSION_OFFSET + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * FNV-1a, never returns 0 because that marks empty slots
+     */
+    private static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Locks the whole index file. Other plugins shading their own copy of the UpdateChecker use another FileChannel
+     * in the same JVM, which throws an OverlappingFileLockException instead of waiting, so this retries for a while.
+     */
+    private FileLock lock() throws IOException {
+        for (int attempt = 0; attempt < LOCK_ATTEMPTS; attempt++) {
+            try {
+                return channel.lock();
+            } catch (OverlappingFileLockException exception) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw new IOException("Could not lock " + file);
+    }
+
+    private static final class Lookup {
+        private static final Lookup FETCH = new Lookup(null, 0);
+
+        private final String version;
+        private final long leaseHeldUntil;
+
+        private Lookup(@Nullable String version, long leaseHeldUntil) {
+            this.version = version;
+            this.leaseHeldUntil = leaseHeldUntil;
+        }
+    }
+}
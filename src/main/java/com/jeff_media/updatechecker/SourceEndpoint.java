@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * An API link together with the mapper that reads the latest version from its response
+ */
+final class SourceEndpoint {
+
+    private static final String SPIGOT_UPDATE_API = "https://api.spigotmc.org/simple/0.2/index.php?action=getResource&id=%s";
+    private static final String POLYMART_UPDATE_API = "https://api.polymart.org/v1/getResourceInfoSimple/?resource_id=%s&key=version";
+    private static final String SPIGET_UPDATE_API = "https://api.spiget.org/v2/resources/%s/versions/latest";
+    private static final String GITHUB_RELEASE_API = "https://api.github.com/repos/%s/%s/releases";
+    // Only the first matching release is read, a small page leaves enough room for skipped drafts
+    private static final String GITHUB_FIRST_RELEASES_API = GITHUB_RELEASE_API + "?per_page=10";
+    // The newest release that is neither a draft nor a prerelease, no matter how many prereleases were published since
+    private static final String GITHUB_LATEST_RELEASE_API = GITHUB_RELEASE_API + "/latest";
+    private static final String HANGAR_RELEASE_API =  "https://hangar.papermc.io/api/v1/projects/%s/%s/latest?channel=%s";
+
+    private final UpdateCheckSource source;
+    private final String apiLink;
+    private final ThrowingFunction<BufferedReader, String, IOException> mapper;
+    private final String stableApiLink;
+    private final ThrowingFunction<BufferedReader, String, IOException> stableMapper;
+    private final SourceHealth health;
+
+    private SourceEndpoint(UpdateCheckSource source, String apiLink, ThrowingFunction<BufferedReader, String, IOException> mapper) {
+        this(source, apiLink, mapper, apiLink, mapper);
+    }
+
+    private SourceEndpoint(UpdateCheckSource source, String apiLink, ThrowingFunction<BufferedReader, String, IOException> mapper,
+                           String stableApiLink, ThrowingFunction<BufferedReader, String, IOException> stableMapper) {
+        this.source = source;
+        this.apiLink = Objects.requireNonNull(apiLink, "API Link cannot be null.");
+        this.mapper = mapper;
+        this.stableApiLink = stableApiLink;
+        this.stableMapper = stableMapper;
+        this.health = new SourceHealth(source, apiLink);
+    }
+
+    /**
+     * Creates the endpoint for the given source
+     *
+     * @param source    Source where to check for updates
+     * @param parameter Parameter for the update checker source. See {@link UpdateCheckSource} for more information
+     * @return Endpoint for the given source
+     */
+    static SourceEndpoint of(@NotNull UpdateCheckSource source, @NotNull String parameter) {
+        switch (source) {
+            case CUSTOM_URL:
+                return new SourceEndpoint(source, parameter, VersionMapper.TRIM_FIRST_LINE);
+            case SPIGOT:
+                return new SourceEndpoint(source, String.format(SPIGOT_UPDATE_API, parameter), VersionMapper.SPIGOT);
+            case POLYMART:
+                return new SourceEndpoint(source, String.format(POLYMART_UPDATE_API, parameter), VersionMapper.TRIM_FIRST_LINE);
+            case SPIGET:
+                return new SourceEndpoint(source, String.format(SPIGET_UPDATE_API, parameter), VersionMapper.SPIGET);
+            case GITHUB_RELEASE_TAG: {
+                String[] split = splitGitHubRepository(parameter);
+                return new SourceEndpoint(source, String.format(GITHUB_FIRST_RELEASES_API, split[0], split[1]), VersionMapper.GITHUB_RELEASE_TAG,
+                        String.format(GITHUB_LATEST_RELEASE_API, split[0], split[1]), VersionMapper.GITHUB_LATEST_RELEASE_TAG);
+            }
+            case HANGAR: {
+                String[] split = parameter.split("/");
+                if (split.length <3) {
+                    throw new IllegalArgumentException("Given HangarMC project must be in the format \"<UserOrOrganizationName>/<ProjectName>/<ReleaseChannel>\"");
+                }
+                return new SourceEndpoint(source, String.format(HANGAR_RELEASE_API, split[0], split[1], split[2]), VersionMapper.TRIM_FIRST_LINE);
+            }
+            default:
+                throw new UnsupportedOperationException();
+        }
+    }
+
+    private static String[] splitGitHubRepository(String parameter) {
+        String[] split = parameter.split("/");
+        if (split.length < 2) {
+            throw new IllegalArgumentException("Given GitHub repository must be in the format \"<UserOrOrganizationName>/<RepositoryName>\"");
+        }
+        return split;
+    }
+
+    UpdateCheckSource getSource() {
+        return source;
+    }
+
+    String getApiLink() {
+        return apiLink;
+    }
+
+    /**
+     * Gets the API link to query
+     *
+     * @param ignorePrereleases Whether prereleases should be ignored, only supported by GitHub sources
+     * @return API link to query
+     */
+    String getApiLink(boolean ignorePrereleases) {
+        return ignorePrereleases ? stableApiLink : apiLink;
+    }
+
+    /**
+     * Gets the mapper that reads the latest version from the response
+     *
+     * @param ignorePrereleases Whether prereleases should be ignored, only supported by GitHub sources
+     * @return Mapper that reads the latest version from the response
+     */
+    ThrowingFunction<BufferedReader, String, IOException> getMapper(boolean ignorePrereleases) {
+        return ignorePrereleases ? stableMapper : mapper;
+    }
+
+    /**
+     * Gets the key under which results of this endpoint are cached. It includes whether prereleases are ignored,
+     * because the mapper and thereby the returned version depends on it.
+     *
+     * @param ignorePrereleases Whether prereleases should be ignored
+     * @return Key for the given mapper
+     */
+    String getCacheKey(boolean ignorePrereleases) {
+        return ignorePrereleases ? apiLink + "#stable" : apiLink;
+    }
+
+    SourceHealth getHealth() {
+        return health;
+    }
+
+    @Override
+    public String toString() {
+        return source + " (" + apiLink + ")";
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Health of a single update check source. Keeps a rolling success rate and latency, and a circuit breaker that stops
+ * querying the source after several failures in a row. Once the circuit has been open for a while, a single probe
+ * request is let through: if it succeeds, the source is used again, otherwise the circuit stays open.
+ */
+public final class SourceHealth {
+
+    /**
+     * State of the circuit breaker
+     */
+    public enum State {
+        /**
+         * The source is queried normally
+         */
+        CLOSED,
+        /**
+         * The source failed too often and is skipped
+         */
+        OPEN,
+        /**
+         * A probe request is allowed to check whether the source works again
+         */
+        HALF_OPEN
+    }
+
+    // Weight of the newest sample in the rolling averages
+    private static final double ALPHA = 0.2;
+
+    private final UpdateCheckSource source;
+    private final String apiLink;
+    private State state = State.CLOSED;
+    private double successRate = 1;
+    private double averageLatency = -1;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probeRunning = false;
+
+    SourceHealth(UpdateCheckSource source, String apiLink) {
+        this.source = source;
+        this.apiLink = apiLink;
+    }
+
+    /**
+     * Checks whether a request may currently be sent to this source, without reserving the half-open probe
+     */
+    synchronized boolean isAvailable(long openDuration) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return System.nanoTime() - openedAt >= TimeUnit.MILLISECONDS.toNanos(openDuration);
+            default:
+                return !probeRunning;
+        }
+    }
+
+    /**
+     * Checks whether a request may currently be sent to this source. When the circuit is half-open, only one caller
+     * gets permission until the probe was recorded or released.
+     */
+    synchronized boolean tryAcquire(long openDuration) {
+        if (!isAvailable(openDuration)) {
+            return false;
+        }
+        if (state != State.CLOSED) {
+            state = State.HALF_OPEN;
+            probeRunning = true;
+        }
+        return true;
+    }
+
+    /**
+     * Gives back the permission of a request that was cancelled before it had a result
+     */
+    synchronized void release() {
+        probeRunning = false;
+    }
+
+    synchronized void recordSuccess(long latency) {
+        successRate += ALPHA * (1 - successRate);
+        recordLatency(latency);
+        consecutiveFailures = 0;
+        probeRunning = false;
+        state = State.CLOSED;
+    }
+
+    synchronized void recordFailure(long latency, int failureThreshold) {
+        successRate -= ALPHA * successRate;
+        recordLatency(latency);
+        consecutiveFailures++;
+        probeRunning = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    private void recordLatency(long latency) {
+        averageLatency = averageLatency < 0 ? latency : averageLatency + ALPHA * (latency - averageLatency);
+    }
+
+    /**
+     * Gets the source this health belongs to
+     *
+     * @return Source this health belongs to
+     */
+    @NotNull
+    public UpdateCheckSource getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the API link of this source
+     *
+     * @return API link of this source
+     */
+    @NotNull
+    public String getApiLink() {
+        return apiLink;
+    }
+
+    /**
+     * Gets the current state of the circuit breaker
+     *
+     * @return Current state of the circuit breaker
+     */
+    @NotNull
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the rolling success rate, where recent requests weigh more than older ones
+     *
+     * @return Success rate between 0 and 1, or 1 if no request was sent yet
+     */
+    public synchronized double getSuccessRate() {
+        return successRate;
+    }
+
+    /**
+     * Gets the rolling average time it took to get a response or failure, where recent requests weigh more than older ones
+     *
+     * @return Average latency in milliseconds, or -1 if no request was sent yet
+     */
+    public synchronized double getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * Gets how often requests to this source failed in a row
+     *
+     * @return Number of failures since the last successful request
+     */
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SourceHealth{source=" + source + ", state=" + state + ", successRate=" + successRate + ", averageLatency=" + averageLatency + "}";
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Stores the HTTP validators (ETag and Last-Modified) and the latest version returned for each API link in a small
+ * file inside the plugin's data folder, so that conditional requests still work after a restart. It also stores the
+ * last successful result of each UpdateChecker, so that it is available right after the server started, and when
+ * new versions were released, see {@link ReleaseHistory}. All UpdateCheckers of one plugin share the same instance,
+ * see {@link #forDataFolder(File, Logger)}. Changes are only written to the file by {@link #save()}, so that a check
+ * rewrites it at most once.
+ */
+final class UpdateCheckCache {
+
+    static final String FILE_NAME = "updatechecker-cache.properties";
+    private static final String ETAG = "etag.";
+    private static final String LAST_MODIFIED = "last-modified.";
+    private static final String LATEST_VERSION = "latest-version.";
+    private static final String RESULT_VERSION = "result.latest-version.";
+    private static final String RESULT_FETCHED_AT = "result.fetched-at.";
+    private static final String RESULT_SOURCE = "result.source.";
+    private static final String RELEASE_HISTORY = "release-history.";
+    private static final Map<File, UpdateCheckCache> CACHES = new ConcurrentHashMap<>();
+
+    private final File file;
+    private final Logger logger;
+    private final Properties properties = new Properties();
+    private boolean loaded = false;
+    private boolean changed = false;
+
+    private UpdateCheckCache(File file, Logger logger) {
+        this.file = file;
+        this.logger = logger;
+    }
+
+    /**
+     * Gets the cache stored in the given data folder. Every UpdateChecker using the same folder gets the same instance,
+     * so that they don't overwrite each other's entries when saving.
+     */
+    static UpdateCheckCache forDataFolder(File dataFolder, Logger logger) {
+        File file = new File(dataFolder, FILE_NAME);
+        try {
+            file = file.getCanonicalFile();
+        } catch (IOException exception) {
+            file = file.getAbsoluteFile();
+        }
+        return CACHES.computeIfAbsent(file, key -> new UpdateCheckCache(key, logger));
+    }
+
+    synchronized @Nullable Entry get(String apiLink) {
+        load();
+        String latestVersion = properties.getProperty(LATEST_VERSION + apiLink);
+        if (latestVersion == null) {
+            return null;
+        }
+        return new Entry(properties.getProperty(ETAG + apiLink), properties.getProperty(LAST_MODIFIED + apiLink), latestVersion);
+    }
+
+    synchronized void put(String apiLink, Entry entry) {
+        load();
+        set(ETAG + apiLink, entry.getETag());
+        set(LAST_MODIFIED + apiLink, entry.getLastModified());
+        set(LATEST_VERSION + apiLink, entry.getLatestVersion());
+    }
+
+    synchronized @Nullable Result getResult(String key) {
+        load();
+        String latestVersion = properties.getProperty(RESULT_VERSION + key);
+        if (latestVersion == null) {
+            return null;
+        }
+        long fetchedAt;
+        try {
+            fetchedAt = Long.parseLong(properties.getProperty(RESULT_FETCHED_AT + key, "0"));
+        } catch (NumberFormatException exception) {
+            fetchedAt = 0;
+        }
+        UpdateCheckSource source = null;
+        String sourceName = properties.getProperty(RESULT_SOURCE + key);
+        if (sourceName != null) {
+            try {
+                source = UpdateCheckSource.valueOf(sourceName);
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return new Result(latestVersion, fetchedAt, source);
+    }
+
+    synchronized void putResult(String key, Result result) {
+        load();
+        set(RESULT_VERSION + key, result.getLatestVersion());
+        set(RESULT_FETCHED_AT + key, String.valueOf(result.getFetchedAt()));
+        set(RESULT_SOURCE + key, result.getSource() == null ? null : result.getSource().name());
+    }
+
+    synchronized ReleaseHistory getReleaseHistory(String key) {
+        load();
+        return ReleaseHistory.parse(properties.getProperty(RELEASE_HISTORY + key));
+    }
+
+    synchronized void putReleaseHistory(String key, ReleaseHistory history) {
+        load();
+        set(RELEASE_HISTORY + key, history.serialize());
+    }
+
+    private void set(String key, @Nullable String value) {
+        final Object previous = value == null ? properties.remove(key) : properties.setProperty(key, value);
+        if (value == null ? previous != null : !value.equals(previous)) {
+            changed = true;
+        }
+    }
+
+    private void load() {
+        if (loaded) return;
+        loaded = true;
+        if (!file.isFile()) return;
+        try (InputStream input = new FileInputStream(file)) {
+            properties.load(input);
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Could not read " + file.getName(), exception);
+        }
+    }
+
+    /**
+     * Writes all changes since the last save to the file. Does nothing if nothing changed.
+     */
+    synchronized void save() {
+        if (!changed) return;
+        changed = false;
+        Path temp = null;
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            temp = Files.createTempFile(file.getParentFile().toPath(), file.getName() + ".", ".tmp");
+            try (OutputStream output = new FileOutputStream(temp.toFile())) {
+                properties.store(output, "SpigotUpdateChecker cache. Can safely be deleted.");
+            }
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Could not write " + file.getName(), exception);
+        } finally {
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Validators and latest version of one API link
+     */
+    static final class Entry {
+        private final String eTag;
+        private final String lastModified;
+        private final String latestVersion;
+
+        Entry(@Nullable String eTag, @Nullable String lastModified, String latestVersion) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.latestVersion = latestVersion;
+        }
+
+        @Nullable String getETag() {
+            return eTag;
+        }
+
+        @Nullable String getLastModified() {
+            return lastModified;
+        }
+
+        String getLatestVersion() {
+            return latestVersion;
+        }
+
+        boolean hasValidators() {
+            return eTag != null || lastModified != null;
+        }
+    }
+
+    /**
+     * Last successful result of an UpdateChecker
+     */
+    static final class Result {
+        private final String latestVersion;
+        private final long fetchedAt;
+        private final UpdateCheckSource source;
+
+        Result(String latestVersion, long fetchedAt, @Nullable UpdateCheckSource source) {
+            this.latestVersion = latestVersion;
+            this.fetchedAt = fetchedAt;
+            this.source = source;
+        }
+
+        String getLatestVersion() {
+            return latestVersion;
+        }
+
+        long getFetchedAt() {
+            return fetchedAt;
+        }
+
+        @Nullable UpdateCheckSource getSource() {
+            return source;
+        }
+    }
+}
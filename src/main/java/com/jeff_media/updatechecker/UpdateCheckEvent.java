@@ -34,11 +34,21 @@ public class UpdateCheckEvent extends Event {
     private final UpdateCheckResult result;
     private final UpdateCheckSuccess success;
     private @Nullable CommandSender[] requesters = null;
+    private long compressedBytes = 0;
+    private long uncompressedBytes = 0;
 
+    /**
+     * @deprecated Use {@link #UpdateCheckEvent(UpdateChecker, UpdateCheckSuccess)} instead
+     */
+    @Deprecated
     protected UpdateCheckEvent(UpdateCheckSuccess success) {
-        instance = UpdateChecker.getInstance();
+        this(UpdateChecker.getInstance(), success);
+    }
+
+    protected UpdateCheckEvent(@NotNull UpdateChecker instance, UpdateCheckSuccess success) {
+        this.instance = instance;
         this.success = success;
-        if (success == UpdateCheckSuccess.FAIL && instance.getLatestVersion() == null) {
+        if (success != UpdateCheckSuccess.SUCCESS && instance.getLatestVersion() == null) {
             result = UpdateCheckResult.UNKNOWN;
         } else {
             if (instance.isUsingLatestVersion()) {
@@ -59,6 +69,15 @@ public class UpdateCheckEvent extends Event {
         return HANDLERS;
     }
 
+    /**
+     * Gets the UpdateChecker that ran this update check
+     *
+     * @return UpdateChecker that ran this update check
+     */
+    public @NotNull UpdateChecker getChecker() {
+        return instance;
+    }
+
     /**
      * Returns the latest version string found by the UpdateChecker, or null if all previous checks have failed.
      *
@@ -89,6 +108,38 @@ public class UpdateCheckEvent extends Event {
         return this;
     }
 
+    /**
+     * Gets how many bytes of the response body were received for this update check, before decompressing them.
+     * This is 0 when no response body was read, for example when the server answered with 304 Not Modified.
+     *
+     * @return Bytes received for this update check
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+
+    /**
+     * Gets how many bytes of the response body were read for this update check after decompressing them.
+     *
+     * @return Decompressed bytes read for this update check
+     */
+    public long getUncompressedBytes() {
+        return uncompressedBytes;
+    }
+
+    /**
+     * Sets how many bytes of the response body were read for this update check.
+     *
+     * @param compressedBytes   Bytes received before decompressing them
+     * @param uncompressedBytes Bytes read after decompressing them
+     * @return UpdateCheckEvent instance
+     */
+    protected UpdateCheckEvent setTransferredBytes(long compressedBytes, long uncompressedBytes) {
+        this.compressedBytes = compressedBytes;
+        this.uncompressedBytes = uncompressedBytes;
+        return this;
+    }
+
     /**
      * Gets the result, i.e. whether a new version is available or not.
      *
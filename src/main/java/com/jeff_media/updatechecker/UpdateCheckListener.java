@@ -23,34 +23,43 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.server.PluginDisableEvent;
 
 class UpdateCheckListener implements Listener {
 
-    private final UpdateChecker instance;
-
-    UpdateCheckListener() {
-        instance = UpdateChecker.getInstance();
-    }
-
     @SuppressWarnings("unused")
     @EventHandler
     public void notifyOnJoin(PlayerJoinEvent playerJoinEvent) {
-        if (!instance.isCheckedAtLeastOnce()) return;
         Player player = playerJoinEvent.getPlayer();
-        if ((player.isOp() && instance.isNotifyOpsOnJoin()) || (instance.getNotifyPermission() != null && player.hasPermission(instance.getNotifyPermission()))) {
-            UpdateCheckerMessages.printCheckResultToPlayer(player, false);
+        for (UpdateChecker instance : UpdateCheckerRegistry.getAll()) {
+            if (!instance.isCheckedAtLeastOnce()) continue;
+            if (UpdateCheckService.isRegistered(instance)) continue;
+            if (instance.wasNotifiedOnJoin(player.getUniqueId())) continue;
+            if ((player.isOp() && instance.isNotifyOpsOnJoin()) || (instance.getNotifyPermission() != null && player.hasPermission(instance.getNotifyPermission()))) {
+                UpdateCheckerMessages.printCheckResultToPlayer(instance, player, false);
+                instance.markNotifiedOnJoin(player.getUniqueId());
+            }
+        }
+        UpdateCheckService service = UpdateCheckService.getProvider();
+        if (service != null) {
+            service.notifyOnJoin(player);
         }
     }
 
     @SuppressWarnings("unused")
     @EventHandler
     public void onUpdateCheck(UpdateCheckEvent event) {
+        UpdateChecker instance = event.getChecker();
         if (!instance.isCheckedAtLeastOnce()) return;
         if (!instance.isNotifyRequesters()) return;
         if (event.getRequesters() == null) return;
         for (CommandSender commandSender : event.getRequesters()) {
             if (commandSender instanceof Player) {
-                UpdateCheckerMessages.printCheckResultToPlayer((Player) commandSender, true);
+                if (event.getSuccess() == UpdateCheckSuccess.DEFERRED) {
+                    UpdateCheckerMessages.printDeferredToPlayer(instance, (Player) commandSender);
+                    continue;
+                }
+                UpdateCheckerMessages.printCheckResultToPlayer(instance, (Player) commandSender, true);
             } else {
                 UpdateCheckerMessages.printCheckResultToConsole(event);
             }
@@ -58,4 +67,12 @@ class UpdateCheckListener implements Listener {
         }
     }
 
+    @SuppressWarnings("unused")
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        UpdateCheckerRegistry.unregister(event.getPlugin());
+        UpdateCheckService.onPluginDisable(event.getPlugin());
+        RateLimitService.onPluginDisable(event.getPlugin());
+    }
+
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Immutable result of a single update check, see {@link UpdateChecker#checkNowAsync()}
+ */
+public final class UpdateCheckOutcome {
+
+    private final UpdateCheckSuccess success;
+    private final UpdateCheckResult result;
+    private final String usedVersion;
+    private final String latestVersion;
+    private final UpdateCheckSource source;
+    private final long latency;
+    private final Exception exception;
+
+    UpdateCheckOutcome(@NotNull UpdateCheckSuccess success, @NotNull UpdateCheckResult result, @NotNull String usedVersion,
+                       @Nullable String latestVersion, @Nullable UpdateCheckSource source, long latency, @Nullable Exception exception) {
+        this.success = success;
+        this.result = result;
+        this.usedVersion = usedVersion;
+        this.latestVersion = latestVersion;
+        this.source = source;
+        this.latency = latency;
+        this.exception = exception;
+    }
+
+    /**
+     * Checks whether the update check was successful or failed.
+     *
+     * @return UpdateCheckSuccess of this update check
+     */
+    @NotNull
+    public UpdateCheckSuccess getSuccess() {
+        return success;
+    }
+
+    /**
+     * Checks whether the update check was successful
+     *
+     * @return true if the update check was successful, otherwise false
+     */
+    public boolean isSuccess() {
+        return success == UpdateCheckSuccess.SUCCESS;
+    }
+
+    /**
+     * Gets the result, i.e. whether a new version is available or not.
+     *
+     * @return UpdateCheckResult of this update check
+     */
+    @NotNull
+    public UpdateCheckResult getResult() {
+        return result;
+    }
+
+    /**
+     * Gets the version string of the plugin version that was used during this update check
+     *
+     * @return Version string of the used plugin version
+     */
+    @NotNull
+    public String getUsedVersion() {
+        return usedVersion;
+    }
+
+    /**
+     * Gets the latest version string. When the update check failed, this is the latest version found by a previous check.
+     *
+     * @return Latest version string, or null if all checks until yet have failed
+     */
+    @Nullable
+    public String getLatestVersion() {
+        return latestVersion;
+    }
+
+    /**
+     * Gets the source that returned the latest version
+     *
+     * @return Source that returned the latest version, or null if unknown or a {@link VersionSupplier} was used
+     */
+    @Nullable
+    public UpdateCheckSource getSource() {
+        return source;
+    }
+
+    /**
+     * Gets how long the update check took, or 0 if a previous result was reused
+     *
+     * @return Duration of the update check in milliseconds
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets the exception that made the update check fail
+     *
+     * @return Exception that made the update check fail, or null if it was successful
+     */
+    @Nullable
+    public Exception getException() {
+        return exception;
+    }
+
+    @Override
+    public String toString() {
+        return "UpdateCheckOutcome{success=" + success + ", result=" + result + ", usedVersion=" + usedVersion + ", latestVersion=" + latestVersion
+                + ", source=" + source + ", latency=" + latency + "}";
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.Bukkit;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredServiceProvider;
+import org.bukkit.plugin.ServicePriority;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Server-wide update check service shared by all plugins that shade their own copy of the UpdateChecker. The first copy
+ * that needs it registers itself in Bukkit's ServicesManager, all other copies find it there and delegate their
+ * periodic checks to it. The provider runs all checks from its single timer, concurrently, prints one combined console
+ * summary per round and sends one combined message per player on join.
+ * <p>
+ * Every copy is relocated into another package, so copies can't use each other's classes. The provider is found by
+ * its simple class name and is only talked to through {@link Consumer} and maps of JDK and Bukkit types:
+ * <ul>
+ *     <li>{@code action}: "register" or "unregister"</li>
+ *     <li>{@code id}: unique id of the participating UpdateChecker</li>
+ *     <li>{@code plugin}: the participant's plugin</li>
+ *     <li>{@code interval}: check interval in ticks</li>
+ *     <li>{@code check}: {@link Runnable} that checks for updates and blocks until the check is done</li>
+ *     <li>{@code status}: {@link Supplier} of the current result, with the keys {@code name}, {@code result},
+ *     {@code usedVersion}, {@code latestVersion}, {@code downloadLink}, {@code notifyOps} and {@code permission}. Copies
+ *     that tell players only once about each version also add {@code wasNotified}, a {@link Predicate} of the player's
+ *     {@link UUID}, and {@code markNotified}, a {@link Consumer} of it.</li>
+ * </ul>
+ */
+final class UpdateCheckService implements Consumer<Map<String, Object>> {
+
+    private static final String PROTOCOL = "protocol";
+    private static final int PROTOCOL_VERSION = 1;
+
+    private static final Map<String, Map<String, Object>> LOCAL_PARTICIPANTS = new LinkedHashMap<>();
+    private static UpdateCheckService provider = null;
+    private static Consumer<Map<String, Object>> remote = null;
+    private static Plugin remotePlugin = null;
+
+    private final Plugin plugin;
+    private final Map<String, Participant> participants = new ConcurrentHashMap<>();
+
+    private UpdateCheckService(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Lets the shared service check the given UpdateChecker periodically
+     *
+     * @param checker  UpdateChecker
+     * @param interval Check interval in ticks
+     */
+    static void register(UpdateChecker checker, long interval) {
+        final Map<String, Object> message = new HashMap<>();
+        message.put(PROTOCOL, PROTOCOL_VERSION);
+        message.put("action", "register");
+        message.put("id", getId(checker));
+        message.put("plugin", checker.getPlugin());
+        message.put("interval", interval);
+        message.put("check", (Runnable) () -> checker.submitCheck(new CommandSender[0]).join());
+        message.put("status", (Supplier<Map<String, Object>>) () -> getStatus(checker));
+        final Consumer<Map<String, Object>> service;
+        synchronized (UpdateCheckService.class) {
+            LOCAL_PARTICIPANTS.put(getId(checker), message);
+            service = resolve(checker.getPlugin(), null);
+        }
+        service.accept(message);
+        startTimerIfProvider();
+    }
+
+    static synchronized void unregister(UpdateChecker checker) {
+        if (LOCAL_PARTICIPANTS.remove(getId(checker)) == null) {
+            return;
+        }
+        final Consumer<Map<String, Object>> service = provider != null ? provider : remote;
+        if (service != null) {
+            final Map<String, Object> message = new HashMap<>();
+            message.put(PROTOCOL, PROTOCOL_VERSION);
+            message.put("action", "unregister");
+            message.put("id", getId(checker));
+            service.accept(message);
+        }
+    }
+
+    /**
+     * Checks whether the given UpdateChecker is checked by the shared service
+     */
+    static synchronized boolean isRegistered(UpdateChecker checker) {
+        return LOCAL_PARTICIPANTS.containsKey(getId(checker));
+    }
+
+    /**
+     * Called for every plugin that is being disabled. When the provider belongs to that plugin, all participants of
+     * this copy move to another provider, or this copy becomes the provider.
+     */
+    static void onPluginDisable(Plugin disabled) {
+        synchronized (UpdateCheckService.class) {
+            LOCAL_PARTICIPANTS.values().removeIf(message -> message.get("plugin") == disabled);
+            if (provider != null) {
+                provider.participants.values().removeIf(participant -> participant.plugin == disabled);
+            }
+            final boolean providerDisabled = provider != null ? provider.plugin == disabled : remotePlugin == disabled;
+            if (!providerDisabled) {
+                return;
+            }
+            provider = null;
+            remote = null;
+            remotePlugin = null;
+            for (Map<String, Object> message : LOCAL_PARTICIPANTS.values()) {
+                resolve((Plugin) message.get("plugin"), disabled).accept(message);
+            }
+        }
+        startTimerIfProvider();
+    }
+
+    /**
+     * Called without holding the lock of this class, as the registry calls back into this class while holding its own
+     */
+    private static void startTimerIfProvider() {
+        if (getProvider() != null) {
+            UpdateCheckerRegistry.startTimer();
+        }
+    }
+
+    /**
+     * Finds the provider of another copy, or registers this copy as provider
+     *
+     * @param plugin   Plugin to register the provider for if there is none yet
+     * @param excluded Plugin that is being disabled and can't provide the service anymore, or null
+     */
+    private static Consumer<Map<String, Object>> resolve(Plugin plugin, Plugin excluded) {
+        if (provider != null) {
+            return provider;
+        }
+        if (remote != null) {
+            return remote;
+        }
+        for (Class<?> service : Bukkit.getServicesManager().getKnownServices()) {
+            if (!service.getSimpleName().equals(UpdateCheckService.class.getSimpleName())) {
+                continue;
+            }
+            final RegisteredServiceProvider<?> registration = Bukkit.getServicesManager().getRegistration(service);
+            if (registration != null && registration.getPlugin() != excluded && registration.getProvider() instanceof Consumer) {
+                //noinspection unchecked
+                remote = (Consumer<Map<String, Object>>) registration.getProvider();
+                remotePlugin = registration.getPlugin();
+                return remote;
+            }
+        }
+        provider = new UpdateCheckService(plugin);
+        Bukkit.getServicesManager().register(UpdateCheckService.class, provider, plugin, ServicePriority.Normal);
+        return provider;
+    }
+
+    static synchronized UpdateCheckService getProvider() {
+        return provider;
+    }
+
+    private static String getId(UpdateChecker checker) {
+        return checker.getPlugin().getName() + "/" + checker.getResourceKey();
+    }
+
+    private static Map<String, Object> getStatus(UpdateChecker checker) {
+        final Map<String, Object> status = new HashMap<>();
+        status.put("name", checker.getPlugin().getName());
+        status.put("result", checker.getLastCheckResult().name());
+        status.put("usedVersion", checker.getUsedVersion());
+        status.put("latestVersion", checker.getLatestVersion());
+        final List<String> downloadLinks = checker.getAppropriateDownloadLinks();
+        status.put("downloadLink", downloadLinks.isEmpty() ? null : downloadLinks.get(0));
+        status.put("notifyOps", checker.isNotifyOpsOnJoin());
+        status.put("permission", checker.getNotifyPermission());
+        if (checker.isNotifyOncePerVersion()) {
+            status.put("wasNotified", (Predicate<UUID>) checker::wasNotifiedOnJoin);
+            status.put("markNotified", (Consumer<UUID>) checker::markNotifiedOnJoin);
+        }
+        return status;
+    }
+
+    @Override
+    public void accept(Map<String, Object> message) {
+        final Object protocol = message.get(PROTOCOL);
+        if (!(protocol instanceof Integer) || (Integer) protocol != PROTOCOL_VERSION) {
+            plugin.getLogger().warning("Ignoring update check service request using an unsupported protocol: " + protocol);
+            return;
+        }
+        final String id = (String) message.get("id");
+        if ("unregister".equals(message.get("action"))) {
+            participants.remove(id);
+            return;
+        }
+        final long interval = (Long) message.get("interval");
+        //noinspection unchecked
+        participants.put(id, new Participant((Plugin) message.get("plugin"), interval, UpdateCheckerRegistry.getTicks() + interval,
+                (Runnable) message.get("check"), (Supplier<Map<String, Object>>) message.get("status")));
+    }
+
+    /**
+     * Called by the shared timer. Runs all due checks concurrently and prints one summary once all of them are done.
+     */
+    void tick(long currentTick) {
+        final List<Participant> due = new ArrayList<>();
+        for (Participant participant : participants.values()) {
+            if (currentTick >= participant.nextCheck) {
+                participant.nextCheck += participant.interval;
+                due.add(participant);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        final CompletableFuture<?>[] checks = new CompletableFuture<?>[due.size()];
+        for (int i = 0; i < checks.length; i++) {
+            checks[i] = CompletableFuture.runAsync(due.get(i).check, UpdateCheckerRegistry.getExecutor());
+        }
+        CompletableFuture.allOf(checks).whenComplete((ignored, throwable) -> printSummary(due));
+    }
+
+    private void printSummary(List<Participant> checked) {
+        final List<String> lines = new ArrayList<>();
+        for (Participant participant : checked) {
+            final Map<String, Object> status = participant.status.get();
+            if (!UpdateCheckResult.NEW_VERSION_AVAILABLE.name().equals(status.get("result"))) {
+                continue;
+            }
+            if (!lines.isEmpty()) {
+                lines.add(" ");
+            }
+            lines.add(String.format("%s: %s -> %s", status.get("name"), status.get("usedVersion"), status.get("latestVersion")));
+            if (status.get("downloadLink") != null) {
+                lines.add("  " + status.get("downloadLink"));
+            }
+        }
+        if (lines.isEmpty()) {
+            return;
+        }
+        lines.add(0, "There are new versions available for the following plugins:");
+        lines.add(1, " ");
+        UpdateCheckerMessages.printNiceBoxToConsole(plugin.getLogger(), lines);
+    }
+
+    /**
+     * Sends one combined message about all plugins the player should be notified about. Plugins that already told the
+     * player about their latest version are skipped.
+     */
+    @SuppressWarnings("unchecked")
+    void notifyOnJoin(Player player) {
+        final List<Map<String, Object>> updates = new ArrayList<>();
+        for (Participant participant : participants.values()) {
+            final Map<String, Object> status = participant.status.get();
+            if (!UpdateCheckResult.NEW_VERSION_AVAILABLE.name().equals(status.get("result"))) {
+                continue;
+            }
+            final Predicate<UUID> wasNotified = (Predicate<UUID>) status.get("wasNotified");
+            if (wasNotified != null && wasNotified.test(player.getUniqueId())) {
+                continue;
+            }
+            final String permission = (String) status.get("permission");
+            if ((player.isOp() && Boolean.TRUE.equals(status.get("notifyOps"))) || (permission != null && player.hasPermission(permission))) {
+                updates.add(status);
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        player.sendMessage(ChatColor.GRAY + "There are new versions of " + ChatColor.GOLD + updates.size() + ChatColor.GRAY + (updates.size() == 1 ? " plugin" : " plugins") + " available.");
+        for (Map<String, Object> status : updates) {
+            final TextComponent line = new TextComponent(ChatColor.GOLD + String.valueOf(status.get("name")) + ChatColor.DARK_GRAY + ": "
+                    + ChatColor.RED + status.get("usedVersion") + ChatColor.DARK_GRAY + " -> " + ChatColor.GREEN + status.get("latestVersion") + " ");
+            if (status.get("downloadLink") != null) {
+                line.addExtra(UpdateCheckerMessages.createLink("Download", (String) status.get("downloadLink")));
+            }
+            player.spigot().sendMessage(line);
+            final Consumer<UUID> markNotified = (Consumer<UUID>) status.get("markNotified");
+            if (markNotified != null) {
+                markNotified.accept(player.getUniqueId());
+            }
+        }
+    }
+
+    private static final class Participant {
+        private final Plugin plugin;
+        private final long interval;
+        private final Runnable check;
+        private final Supplier<Map<String, Object>> status;
+        private long nextCheck;
+
+        private Participant(Plugin plugin, long interval, long nextCheck, Runnable check, Supplier<Map<String, Object>> status) {
+            this.plugin = plugin;
+            this.interval = interval;
+            this.nextCheck = nextCheck;
+            this.check = check;
+            this.status = status;
+        }
+    }
+}
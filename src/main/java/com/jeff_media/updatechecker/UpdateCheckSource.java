@@ -25,7 +25,7 @@ import org.bukkit.plugin.java.JavaPlugin;
  */
 public enum UpdateCheckSource {
     /**
-     * SpigotMC API. Trustworthy, but slow. Requires the SpigotMC resource ID (the number at the end of your plugin's SpigotMC URL) as parameter in {@link UpdateChecker#UpdateChecker(JavaPlugin, UpdateCheckSource, String)}.
+     * SpigotMC API. Trustworthy, but slow. Requires the SpigotMC resource ID (the number at the end of your plugin's SpigotMC URL) as parameter in {@link UpdateChecker#UpdateChecker(JavaPlugin, UpdateCheckSource, String)}. Can be combined with {@link #SPIGET} using {@link UpdateChecker#addHedgedSource(UpdateCheckSource, String)}.
      */
     SPIGOT,
     /**
@@ -37,7 +37,7 @@ public enum UpdateCheckSource {
      */
     SPIGET,
     /**
-     * GitHub Releases API. Requires your repository in the format "UserName/RepositoryName" (for example: "JEFF-Media-GbR/ChestSort") as parameter in {@link UpdateChecker#UpdateChecker(JavaPlugin, UpdateCheckSource, String)}. It will use the latest release's tag string.
+     * GitHub Releases API. Requires your repository in the format "UserName/RepositoryName" (for example: "JEFF-Media-GbR/ChestSort") as parameter in {@link UpdateChecker#UpdateChecker(JavaPlugin, UpdateCheckSource, String)}. It will use the tag string of the latest of the 10 most recent releases that is not a draft. When {@link UpdateChecker#setIgnorePrereleases(boolean)} is enabled, it uses GitHub's latest release instead, which is never a draft or prerelease.
      */
     GITHUB_RELEASE_TAG,
     /**
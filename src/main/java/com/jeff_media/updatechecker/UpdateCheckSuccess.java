@@ -23,5 +23,9 @@ package com.jeff_media.updatechecker;
  */
 public enum UpdateCheckSuccess {
     SUCCESS,
-    FAIL
+    FAIL,
+    /**
+     * The rate limit of all sources was reached. The check runs again once it is reset, see {@link UpdateChecker#getDeferredUntil()}
+     */
+    DEFERRED
 }
\ No newline at end of file
@@ -29,14 +29,29 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.logging.Level;
 
 /**
  * <b>Main class.</b> Automatically checks for updates.</b>
@@ -45,26 +60,30 @@ import java.util.function.BiConsumer;
 public class UpdateChecker {
 
     static final String VERSION = "3.0.4";
+    private static final String SHARED_CACHE_PROPERTY = "spigotupdatechecker.shared-cache";
+    private static final long SHARED_CACHE_DEFAULT_TTL = TimeUnit.HOURS.toMillis(1);
+    private static final long SHARED_CACHE_LEASE = TimeUnit.MINUTES.toMillis(1);
+    private static final long TICK_MILLIS = 50;
+    private static final int DEFAULT_TIMEOUT = (int) TimeUnit.SECONDS.toMillis(10);
     private static final String SPIGOT_CHANGELOG_SUFFIX = "/history";
     private static final String SPIGOT_DOWNLOAD_LINK = "https://www.spigotmc.org/resources/";
-    private static final String SPIGOT_UPDATE_API = "https://api.spigotmc.org/simple/0.2/index.php?action=getResource&id=%s";
     private static final String POLYMART_CHANGELOG_SUFFIX = "/updates";
     private static final String POLYMART_DOWNLOAD_LINK = "https://polymart.org/resource/";
-    private static final String POLYMART_UPDATE_API = "https://api.polymart.org/v1/getResourceInfoSimple/?resource_id=%s&key=version";
-    private static final String SPIGET_UPDATE_API = "https://api.spiget.org/v2/resources/%s/versions/latest";
-    private static final String GITHUB_RELEASE_API = "https://api.github.com/repos/%s/%s/releases";
-    private static final String HANGAR_RELEASE_API =  "https://hangar.papermc.io/api/v1/projects/%s/%s/latest?channel=%s";
-    private static UpdateChecker instance = null;
-    private static boolean listenerAlreadyRegistered = false;
 
     static {
         checkRelocation();
     }
 
     private final String spigotUserId = "%%__USER__%%";
-    private final String apiLink;
-    private final ThrowingFunction<BufferedReader, String, IOException> mapper;
+    private final SourceEndpoint endpoint;
+    private final List<SourceEndpoint> hedgedEndpoints = new ArrayList<>();
+    private long hedgeDelay = 1000;
+    private final List<SourceEndpoint> fallbackEndpoints = new ArrayList<>();
+    private int circuitFailureThreshold = 3;
+    private long circuitOpenDuration = TimeUnit.MINUTES.toMillis(5);
+    private Executor fetchExecutor = UpdateCheckerRegistry.getDefaultFetchExecutor();
     private final UpdateCheckSource updateCheckSource;
+    private final String resourceKey;
     private final VersionSupplier supplier;
     private final Plugin plugin;
     private String changelogLink = null;
@@ -72,7 +91,9 @@ public class UpdateChecker {
     private boolean coloredConsoleOutput = false;
     private String donationLink = null;
     private String freeDownloadLink = null;
-    private String latestVersion = null;
+    private volatile String latestVersion = null;
+    private volatile UpdateCheckerMessages.PlayerMessage joinMessage = null;
+    private volatile UpdateCheckerMessages.PlayerMessage requesterMessage = null;
     private String nameFreeVersion = "Free";
     private String namePaidVersion = "Paid";
     private boolean notifyOpsOnJoin = true;
@@ -84,18 +105,52 @@ public class UpdateChecker {
     private BiConsumer<CommandSender[], String> onSuccess = (requesters, latestVersion) -> {
     };
     private String paidDownloadLink = null;
-    private static TaskScheduler scheduler;
-    @Nullable
-    private MyScheduledTask updaterTask = null;
-    private int timeout = 0;
+    private TaskScheduler scheduler;
+    private volatile long checkInterval = 0;
+    private volatile long nextScheduledCheck = 0;
+    private long scheduleBase = 0;
+    private long initialDelay = 0;
+    private long scheduleJitter = 0;
+    private boolean stableScheduleOffset = false;
+    private boolean wallClockScheduling = false;
+    private volatile long initialCheckTime = 0;
+    private volatile CommandSender scheduledRequester = null;
+    private long baseInterval = 0;
+    private long lastScheduledRun = 0;
+    private long adaptiveMinInterval = 0;
+    private long adaptiveMaxInterval = 0;
+    private ReleaseHistory releaseHistory = new ReleaseHistory();
+    private long retryBaseDelay = TimeUnit.MINUTES.toMillis(1);
+    private long retryMaxDelay = TimeUnit.HOURS.toMillis(1);
+    private volatile int consecutiveFailures = 0;
+    private volatile long currentBackoff = 0;
+    private volatile long nextRetry = 0;
+    private int timeout = DEFAULT_TIMEOUT;
+    private UpdateCheckCache cache;
+    private NotifiedPlayers notifiedPlayers;
+    private boolean notifyOncePerVersion = false;
+    private long renotifyAfter = 0;
+    private boolean conditionalRequests = true;
+    private boolean ignorePrereleases = false;
+    private boolean useSharedService = false;
+    private volatile SharedResultCache sharedCache = null;
+    private long sharedCacheTtl = 0;
+    private final Object checkLock = new Object();
+    private Set<CommandSender> pendingRequesters = null;
+    private CompletableFuture<UpdateCheckOutcome> runningCheck = null;
+    private Set<CommandSender> deferredRequesters = null;
+    private MyScheduledTask deferredTask = null;
+    private volatile long deferredUntil = 0;
+    private long minimumRefetchInterval = 0;
+    private volatile long lastSuccessfulFetch = 0;
+    private volatile UpdateCheckSource latestVersionSource = null;
+    private volatile long lastCompressedBytes = 0;
+    private volatile long lastUncompressedBytes = 0;
     private String usedVersion;
-    private String userAgentString = null;
+    private DefaultArtifactVersion parsedUsedVersion;
+    private volatile String userAgentString = null;
     private boolean usingPaidVersion = false;
 
-    {
-        instance = this;
-    }
-
     /**
      * Initializes an UpdateChecker instance with a custom {@link VersionSupplier}.
      *
@@ -104,17 +159,17 @@ public class UpdateChecker {
      */
     public UpdateChecker(@NotNull JavaPlugin plugin, @NotNull VersionSupplier supplier) {
         this.plugin = plugin;
-        this.apiLink = null;
+        this.endpoint = null;
         this.supplier = supplier;
         this.updateCheckSource = null;
-        this.mapper = null;
+        this.resourceKey = "plugin:" + plugin.getName();
         init();
     }
 
     private void init() {
         Objects.requireNonNull(plugin, "Plugin cannot be null.");
 
-        this.usedVersion = plugin.getDescription().getVersion().trim();
+        setUsedVersion(plugin.getDescription().getVersion().trim());
 
         if (detectPaidVersion()) {
             usingPaidVersion = true;
@@ -122,10 +177,33 @@ public class UpdateChecker {
 
         scheduler = UniversalScheduler.getScheduler(plugin);
 
-        if (!listenerAlreadyRegistered) {
-            Bukkit.getPluginManager().registerEvents(new UpdateCheckListener(), plugin);
-            listenerAlreadyRegistered = true;
+        cache = UpdateCheckCache.forDataFolder(plugin.getDataFolder(), plugin.getLogger());
+        notifiedPlayers = new NotifiedPlayers(plugin.getDataFolder(), resourceKey, plugin.getLogger());
+        releaseHistory = cache.getReleaseHistory(resourceKey);
+        restoreCachedResult();
+
+        final String sharedCacheDirectory = System.getProperty(SHARED_CACHE_PROPERTY);
+        if (sharedCacheDirectory != null && !sharedCacheDirectory.isEmpty()) {
+            setSharedCache(new File(sharedCacheDirectory), SHARED_CACHE_DEFAULT_TTL);
         }
+
+        UpdateCheckerRegistry.register(this);
+    }
+
+    /**
+     * Makes the last successful result from before the restart available until the next check finished
+     */
+    private void restoreCachedResult() {
+        if (endpoint == null) {
+            return;
+        }
+        final UpdateCheckCache.Result result = cache.getResult(endpoint.getCacheKey(ignorePrereleases));
+        if (result == null) {
+            return;
+        }
+        latestVersion = normalizeLatestVersion(result.getLatestVersion());
+        latestVersionSource = result.getSource();
+        lastSuccessfulFetch = result.getFetchedAt();
     }
 
     /**
@@ -150,71 +228,38 @@ public class UpdateChecker {
 
         this.supplier = null;
 
-        final String apiLink;
-        final ThrowingFunction<BufferedReader, String, IOException> mapper;
-
-        switch (this.updateCheckSource = updateCheckSource) {
-            case CUSTOM_URL: {
-                apiLink = parameter;
-                mapper = VersionMapper.TRIM_FIRST_LINE;
-                break;
-            }
-            case SPIGOT: {
-                apiLink = String.format(SPIGOT_UPDATE_API, parameter);
-                mapper = VersionMapper.SPIGOT;
-                break;
-            }
-            case POLYMART: {
-                apiLink = String.format(POLYMART_UPDATE_API, parameter);
-                mapper = VersionMapper.TRIM_FIRST_LINE;
-                break;
-            }
-            case SPIGET: {
-                apiLink = String.format(SPIGET_UPDATE_API, parameter);
-                mapper = VersionMapper.SPIGET;
-                break;
-            }
-            case GITHUB_RELEASE_TAG: {
-                String[] split = parameter.split("/");
-                if (split.length < 2) {
-                    throw new IllegalArgumentException("Given GitHub repository must be in the format \"<UserOrOrganizationName>/<RepositoryName>\"");
-                }
-                apiLink = String.format(GITHUB_RELEASE_API, split[0], split[1]);
-                mapper = VersionMapper.GITHUB_RELEASE_TAG;
-                break;
-            }
-            case HANGAR: {
-                String[] split = parameter.split("/");
-                if (split.length <3) {
-                    throw new IllegalArgumentException("Given HangarMC project must be in the format \"<UserOrOrganizationName>/<ProjectName>/<ReleaseChannel>\"");
-                }
-
-                apiLink = String.format(HANGAR_RELEASE_API, split[0], split[1], split[2]);
-                mapper = VersionMapper.TRIM_FIRST_LINE;
-                break;
-            }
-            default:
-                throw new UnsupportedOperationException();
-        }
-
-        Objects.requireNonNull(apiLink, "API Link cannot be null.");
-
-        this.apiLink = apiLink;
-        this.mapper = mapper;
+        this.updateCheckSource = updateCheckSource;
+        this.endpoint = SourceEndpoint.of(updateCheckSource, parameter);
+        this.resourceKey = getResourceKey(updateCheckSource, parameter);
 
         init();
 
     }
 
     /**
-     * Gets the current UpdateChecker singleton if it has been created, otherwise null.
+     * Gets the UpdateChecker that was created last, otherwise null.
      *
      * @return UpdateChecker instance being ran, or null if {@link #UpdateChecker(JavaPlugin, UpdateCheckSource, String)} wasn't called yet.
-     * @deprecated As of SpigotUpdateChecker 1.4.0, more than one instance can exist at the same time. Keep track of the instances you created yourself.
+     * @deprecated More than one instance can exist at the same time now. Keep track of the instances you created yourself, or use {@link UpdateCheckerRegistry}.
      */
     @Deprecated
     public static UpdateChecker getInstance() {
-        return instance;
+        return UpdateCheckerRegistry.getLatest();
+    }
+
+    static String getResourceKey(UpdateCheckSource source, String parameter) {
+        return source.name() + ":" + parameter;
+    }
+
+    /**
+     * Gets the key this UpdateChecker is registered under in the {@link UpdateCheckerRegistry}. This is the source and
+     * parameter, for example "SPIGOT:59773", or "plugin:" followed by the plugin name when a {@link VersionSupplier} is used.
+     *
+     * @return Resource key of this UpdateChecker
+     */
+    @NotNull
+    public String getResourceKey() {
+        return resourceKey;
     }
 
     /**
@@ -249,8 +294,10 @@ public class UpdateChecker {
 
     /**
      * Checks that the class was properly relocated. Proudly stolen from bStats.org
+     * Skipped when no server is running, e.g. in benchmarks.
      */
     private static void checkRelocation() {
+        if (Bukkit.getServer() == null) return;
         if (Bukkit.getServer().getClass().getName().equals("be.seeseemelk.mockbukkit.ServerMock")) return;
         final String defaultPackageDe = new String(new byte[]{'d', 'e', '.', 'j', 'e', 'f', 'f', '_', 'm', 'e', 'd', 'i', 'a', '.', 'u', 'p', 'd', 'a', 't', 'e', 'c', 'h', 'e', 'c', 'k', 'e', 'r'});
         final String defaultPackageCom = new String(new byte[]{'c', 'o', 'm', '.', 'j', 'e', 'f', 'f', '_', 'm', 'e', 'd', 'i', 'a', '.', 'u', 'p', 'd', 'a', 't', 'e', 'c', 'h', 'e', 'c', 'k', 'e', 'r'});
@@ -281,28 +328,198 @@ public class UpdateChecker {
      * @return UpdateChecker instance being ran
      */
     public UpdateChecker checkEveryXHours(double hours) {
-        double minutes = hours * 60;
-        double seconds = minutes * 60;
-        long ticks = ((int) seconds) * 20L;
+        baseInterval = (long) (hours * TimeUnit.HOURS.toMillis(1));
         stop();
-        if (ticks > 0) {
-            updaterTask = getScheduler().runTaskTimer(() -> checkNow(Bukkit.getConsoleSender()), ticks, ticks);
-        } else {
-            updaterTask = null;
+        if (baseInterval >= TICK_MILLIS && useSharedService) {
+            UpdateCheckService.register(this, baseInterval / TICK_MILLIS);
+        } else if (baseInterval >= TICK_MILLIS) {
+            // With wall-clock scheduling, the checks are started from the timer thread, which must not access the Bukkit API
+            resolveUserAgent();
+            scheduledRequester = Bukkit.getConsoleSender();
+            final long interval = isAdaptiveInterval()
+                    ? releaseHistory.chooseInterval(System.currentTimeMillis(), baseInterval, adaptiveMinInterval, adaptiveMaxInterval)
+                    : baseInterval;
+            final long now = getScheduleTime();
+            final long firstRun = now + (stableScheduleOffset ? getStableOffset(interval) : interval);
+            synchronized (checkLock) {
+                lastScheduledRun = now;
+                scheduleBase = firstRun;
+                nextScheduledCheck = scheduleBase + randomJitter(interval);
+                if (initialDelay > 0) {
+                    initialCheckTime = now + 1 + (long) (ThreadLocalRandom.current().nextDouble() * initialDelay);
+                }
+                checkInterval = interval;
+            }
+            if (wallClockScheduling) {
+                UpdateCheckerRegistry.startWallClockTimer();
+            } else {
+                UpdateCheckerRegistry.startTimer();
+            }
         }
         return this;
     }
 
+    boolean isScheduled() {
+        return checkInterval > 0;
+    }
+
+    /**
+     * Gets the current time of the clock used for periodic checks
+     *
+     * @return Elapsed real time in milliseconds when using wall-clock scheduling, otherwise elapsed ticks of the shared
+     * timer converted to milliseconds
+     */
+    private long getScheduleTime() {
+        if (wallClockScheduling) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+        }
+        return UpdateCheckerRegistry.getTicks() * TICK_MILLIS;
+    }
+
+    /**
+     * Called by the shared timer of the {@link UpdateCheckerRegistry}, or by its wall-clock timer when using
+     * wall-clock scheduling
+     */
+    void runScheduledCheck() {
+        if (checkInterval <= 0) {
+            return;
+        }
+        final long now = getScheduleTime();
+        if (now >= nextScheduledCheck && advanceSchedule(now)) {
+            checkNow(scheduledRequester);
+        } else if (initialCheckTime > 0 && now >= initialCheckTime) {
+            initialCheckTime = 0;
+            checkNow(scheduledRequester);
+        } else if (nextRetry > 0 && now >= nextRetry) {
+            nextRetry = 0;
+            checkNow(scheduledRequester);
+        }
+    }
+
+    /**
+     * Moves the schedule to the next run. The schedule is also re-anchored by {@link #observeRelease(String, long)} on
+     * the worker threads, so it is only changed while holding the check lock.
+     *
+     * @return false if the schedule was stopped or changed in the meantime and the check is not due anymore
+     */
+    private boolean advanceSchedule(long now) {
+        synchronized (checkLock) {
+            final long interval = checkInterval;
+            if (interval <= 0 || now < nextScheduledCheck) {
+                return false;
+            }
+            // Jitter is added to every run separately, so it doesn't accumulate
+            scheduleBase += interval;
+            if (scheduleBase <= now) {
+                // The server was stalled for more than one interval, skip the missed runs
+                scheduleBase += (now - scheduleBase) / interval * interval + interval;
+            }
+            lastScheduledRun = scheduleBase - interval;
+            nextScheduledCheck = scheduleBase + randomJitter(interval);
+            nextRetry = 0;
+            initialCheckTime = 0;
+            return true;
+        }
+    }
+
+    private boolean isAdaptiveInterval() {
+        return adaptiveMaxInterval > 0;
+    }
+
+    /**
+     * Records the version returned by a successful check in the release history, and chooses the next interval from it
+     * when the adaptive interval is enabled
+     */
+    private void observeRelease(String version, long now) {
+        if (releaseHistory.observe(version, now)) {
+            cache.putReleaseHistory(resourceKey, releaseHistory);
+        }
+        if (!isAdaptiveInterval() || checkInterval <= 0) {
+            return;
+        }
+        final long interval = releaseHistory.chooseInterval(now, baseInterval, adaptiveMinInterval, adaptiveMaxInterval);
+        synchronized (checkLock) {
+            if (checkInterval > 0 && interval != checkInterval) {
+                checkInterval = interval;
+                scheduleBase = lastScheduledRun + interval;
+                nextScheduledCheck = scheduleBase + randomJitter(interval);
+            }
+        }
+    }
+
+    private long randomJitter(long interval) {
+        // Never delay a run past the next one
+        final long maxJitter = Math.min(scheduleJitter, interval / 2);
+        return maxJitter > 0 ? ThreadLocalRandom.current().nextLong(maxJitter + 1) : 0;
+    }
+
+    /**
+     * Derives an offset from the server's address, its folder and this plugin and resource, so that servers and plugins
+     * that start at the same time still spread their checks over the interval, but every restart of the same server
+     * keeps the same offset
+     */
+    private long getStableOffset(long interval) {
+        final String identity = Bukkit.getIp() + ':' + Bukkit.getPort() + '|' + new File("").getAbsolutePath() + '|'
+                + plugin.getName() + '|' + resourceKey;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < identity.length(); i++) {
+            hash ^= identity.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // At least one second, so the first run never happens before the server finished starting
+        return 1000 + Math.floorMod(hash, Math.max(1, interval - 1000));
+    }
+
+    /**
+     * Schedules a retry after a failed check, using exponential backoff with full jitter: the n-th failure in a row
+     * retries after a random delay between 0 and min(maxDelay, baseDelay * 2^(n-1)). A successful check resets it.
+     */
+    private void updateBackoff(UpdateCheckSuccess success) {
+        if (success == UpdateCheckSuccess.SUCCESS) {
+            consecutiveFailures = 0;
+            currentBackoff = 0;
+            nextRetry = 0;
+            return;
+        }
+        if (success != UpdateCheckSuccess.FAIL) {
+            // Deferred checks are retried once the rate limit is reset
+            return;
+        }
+        final int failures = ++consecutiveFailures;
+        if (checkInterval <= 0 || retryBaseDelay <= 0) {
+            return;
+        }
+        final long ceiling = Math.min(retryMaxDelay, retryBaseDelay << Math.min(failures - 1, 30));
+        final long delay = (long) (ThreadLocalRandom.current().nextDouble() * Math.max(ceiling, 0));
+        final long retryTime = getScheduleTime() + Math.max(1, delay);
+        if (retryTime >= nextScheduledCheck) {
+            // The regular check comes first anyway
+            currentBackoff = 0;
+            nextRetry = 0;
+            return;
+        }
+        currentBackoff = delay;
+        nextRetry = retryTime;
+    }
+
     /**
      * Stops the scheduled update checks. THIS IS NOT NEEDED when calling
      * checkEveryXHours(double) again, as the UpdateChecker will automatically stop
      * its previous task.
      */
     public UpdateChecker stop() {
-        if (updaterTask != null) {
-            updaterTask.cancel();
+        checkInterval = 0;
+        initialCheckTime = 0;
+        currentBackoff = 0;
+        nextRetry = 0;
+        synchronized (checkLock) {
+            if (deferredTask != null) {
+                deferredTask.cancel();
+                deferredTask = null;
+            }
+            deferredRequesters = null;
         }
-        updaterTask = null;
+        UpdateCheckService.unregister(this);
         return this;
     }
 
@@ -313,60 +530,500 @@ public class UpdateChecker {
      * @param requesters CommandSenders to send the result to, or null
      */
     public UpdateChecker checkNow(@Nullable CommandSender... requesters) {
+        submitCheck(requesters);
+        return this;
+    }
+
+    /**
+     * Checks for updates now and returns a future for the outcome. The future is completed by the thread that checked
+     * for updates, not by the main thread, so don't access the Bukkit API in dependent stages without switching back
+     * to the main thread. Completing it on the main thread would delay it by up to one tick, and would never happen if
+     * the main thread itself waits for the future, for example during startup. Use
+     * {@link #checkNowAsync(Executor)} to complete it somewhere else. The onSuccess/onFail tasks and the {@link UpdateCheckEvent} still run as usual, but the
+     * result is not sent to anyone. When another check is already running, the future completes with its outcome.
+     *
+     * @return Future that is completed with the outcome of the update check. Failed checks are reported by
+     * {@link UpdateCheckOutcome#getSuccess()}, it only completes exceptionally when the check threw an Error.
+     */
+    public CompletableFuture<UpdateCheckOutcome> checkNowAsync() {
+        // A dependent copy, so callers can't complete the check that other callers share
+        return submitCheck(null).thenApply(Function.identity());
+    }
+
+    /**
+     * Checks for updates now and returns a future for the outcome, that is completed using the given executor.
+     * See {@link #checkNowAsync()}.
+     *
+     * @param executor Executor used to complete the future, for example a plugin's own thread pool
+     * @return Future that is completed with the outcome of the update check
+     */
+    public CompletableFuture<UpdateCheckOutcome> checkNowAsync(@NotNull Executor executor) {
+        return submitCheck(null).thenApplyAsync(Function.identity(), executor);
+    }
+
+    private void resolveUserAgent() {
+        if (userAgentString == null) {
+            userAgentString = UserAgentBuilder.getDefaultUserAgent(this).build();
+        }
+    }
+
+    /**
+     * Starts an update check, or joins the one that is already running
+     *
+     * @param requesters CommandSenders to send the result to, or null
+     * @return Future that is completed once the latest version was fetched, before the result is sent to the requesters
+     */
+    CompletableFuture<UpdateCheckOutcome> submitCheck(@Nullable CommandSender[] requesters) {
         if (plugin == null) {
             throw new IllegalStateException("Plugin has not been set.");
         }
-        if (apiLink == null && supplier == null) {
+        if (endpoint == null && supplier == null) {
             throw new IllegalStateException("API Link has not been set and no supplier was provided.");
         }
 
         checkedAtLeastOnce = true;
+        resolveUserAgent();
 
-        if (userAgentString == null) {
-            userAgentString = UserAgentBuilder.getDefaultUserAgent().build();
+        if (minimumRefetchInterval > 0 && latestVersion != null
+                && System.currentTimeMillis() - lastSuccessfulFetch < minimumRefetchInterval) {
+            final CommandSender[] cachedRequesters = mergeRequesters(new LinkedHashSet<>(), requesters);
+            scheduler.runTask(() -> callCheckResult(UpdateCheckSuccess.SUCCESS, null, cachedRequesters, 0, 0));
+            return CompletableFuture.completedFuture(createOutcome(UpdateCheckSuccess.SUCCESS, 0, null));
         }
 
-        getScheduler().runTaskAsynchronously(() -> {
-
-            UpdateCheckEvent updateCheckEvent;
+        final CompletableFuture<UpdateCheckOutcome> future;
+        synchronized (checkLock) {
+            if (pendingRequesters != null) {
+                // A check is already running, its result will also be sent to these requesters
+                mergeRequesters(pendingRequesters, requesters);
+                return runningCheck;
+            }
+            pendingRequesters = new LinkedHashSet<>();
+            mergeRequesters(pendingRequesters, requesters);
+            future = runningCheck = new CompletableFuture<>();
+        }
 
+        UpdateCheckerRegistry.getExecutor().execute(() -> {
             try {
-                if (supplier != null) {
-                    latestVersion = supplier.getLatestVersionString();
-                } else {
-                    final HttpURLConnection httpConnection = (HttpURLConnection) new URL(apiLink).openConnection();
-                    httpConnection.addRequestProperty("User-Agent", userAgentString);
-                    if (timeout > 0) {
-                        httpConnection.setConnectTimeout(timeout);
-                    }
-                    try (final InputStreamReader input = new InputStreamReader(httpConnection.getInputStream()); final BufferedReader reader = new BufferedReader(input)) {
-                        latestVersion = mapper.apply(reader);
-                    }
-                }
+                runCheck(future);
+            } catch (final Throwable throwable) {
+                // Also thrown for Errors from a VersionSupplier, a mapper or a broken dependency
+                future.completeExceptionally(throwable);
+                throw throwable;
+            }
+        });
+        return future;
+    }
 
-                if (!isUsingLatestVersion() && !isOtherVersionNewer(usedVersion, latestVersion)) {
-                    latestVersion = usedVersion;
-                }
+    /**
+     * Fetches the latest version and completes the future of the running check. The running check is always released,
+     * even when an Error is thrown, so later checks don't wait for it forever.
+     */
+    private void runCheck(final CompletableFuture<UpdateCheckOutcome> future) {
+        final long start = System.nanoTime();
+        UpdateCheckSuccess success;
+        Exception exception = null;
+        FetchedVersion fetched = null;
+        final CommandSender[] mergedRequesters;
+
+        try {
+            if (supplier != null) {
+                fetched = new FetchedVersion(fetchSupplied(), null, 0, 0);
+            } else {
+                fetched = fetchShared();
+            }
 
-                updateCheckEvent = new UpdateCheckEvent(UpdateCheckSuccess.SUCCESS);
-            } catch (final IOException exception) {
-                updateCheckEvent = new UpdateCheckEvent(UpdateCheckSuccess.FAIL);
-                getScheduler().runTask(() -> getOnFail().accept(requesters, exception));
+            final String version = fetched.getVersion();
+            if (fetched.getSource() != null) {
+                latestVersionSource = fetched.getSource();
+            }
+            latestVersion = normalizeLatestVersion(version);
+            lastSuccessfulFetch = System.currentTimeMillis();
+            if (endpoint != null) {
+                cache.putResult(endpoint.getCacheKey(ignorePrereleases), new UpdateCheckCache.Result(version, lastSuccessfulFetch, latestVersionSource));
             }
+            observeRelease(version, lastSuccessfulFetch);
+            deferredUntil = 0;
+            success = UpdateCheckSuccess.SUCCESS;
+        } catch (final RateLimitedException ex) {
+            deferredUntil = ex.getRetryAt();
+            success = UpdateCheckSuccess.DEFERRED;
+            exception = ex;
+        } catch (final IOException | RuntimeException ex) {
+            success = UpdateCheckSuccess.FAIL;
+            exception = ex;
+        } finally {
+            synchronized (checkLock) {
+                mergedRequesters = pendingRequesters.toArray(new CommandSender[0]);
+                pendingRequesters = null;
+                runningCheck = null;
+            }
+        }
+        // Validators, result and release history of this check are written at once
+        cache.save();
 
-            UpdateCheckEvent finalUpdateCheckEvent = updateCheckEvent.setRequesters(requesters);
+        if (success == UpdateCheckSuccess.DEFERRED) {
+            deferCheck(mergedRequesters, deferredUntil);
+        }
+        updateBackoff(success);
+
+        final UpdateCheckSuccess finalSuccess = success;
+        final Exception finalException = exception;
+        // Only the request whose version was used is counted, not the ones it raced against
+        final long compressedBytes = success == UpdateCheckSuccess.SUCCESS ? fetched.getCompressedBytes() : 0;
+        final long uncompressedBytes = success == UpdateCheckSuccess.SUCCESS ? fetched.getUncompressedBytes() : 0;
+        lastCompressedBytes = compressedBytes;
+        lastUncompressedBytes = uncompressedBytes;
+        future.complete(createOutcome(finalSuccess, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), finalException));
+        scheduler.runTask(() -> callCheckResult(finalSuccess, finalException, mergedRequesters, compressedBytes, uncompressedBytes));
+    }
 
-            getScheduler().runTask(() -> {
+    /**
+     * Runs the check again once the rate limit allows it. Requesters of checks that are deferred while waiting are
+     * merged, so everyone gets the result of the next check.
+     */
+    private void deferCheck(final CommandSender[] requesters, final long retryAt) {
+        final long delay = Math.max(1, (retryAt - System.currentTimeMillis() + TICK_MILLIS - 1) / TICK_MILLIS);
+        synchronized (checkLock) {
+            if (deferredRequesters == null) {
+                deferredRequesters = new LinkedHashSet<>();
+            }
+            mergeRequesters(deferredRequesters, requesters);
+            if (deferredTask != null) {
+                deferredTask.cancel();
+            }
+            deferredTask = scheduler.runTaskLater(this::runDeferredCheck, delay);
+        }
+    }
+
+    private void runDeferredCheck() {
+        final CommandSender[] requesters;
+        synchronized (checkLock) {
+            if (deferredRequesters == null) {
+                return;
+            }
+            requesters = deferredRequesters.toArray(new CommandSender[0]);
+            deferredRequesters = null;
+            deferredTask = null;
+        }
+        checkNow(requesters);
+    }
+
+    /**
+     * Gets the rendered chat message for the current result, rendering it only when the result or a link changed
+     *
+     * @param showMessageWhenLatestVersion Whether the message should also say when the latest version is used
+     */
+    UpdateCheckerMessages.PlayerMessage getPlayerMessage(boolean showMessageWhenLatestVersion) {
+        final String latestVersion = this.latestVersion;
+        UpdateCheckerMessages.PlayerMessage message = showMessageWhenLatestVersion ? requesterMessage : joinMessage;
+        if (message == null || !message.isFor(latestVersion)) {
+            message = UpdateCheckerMessages.renderPlayerMessage(this, getCheckResult(latestVersion), latestVersion, showMessageWhenLatestVersion);
+            if (showMessageWhenLatestVersion) {
+                requesterMessage = message;
+            } else {
+                joinMessage = message;
+            }
+        }
+        return message;
+    }
+
+    /**
+     * Checks whether the player can be skipped on join, because they were already told about the latest version
+     */
+    boolean wasNotifiedOnJoin(UUID player) {
+        final String latestVersion = this.latestVersion;
+        return notifyOncePerVersion && latestVersion != null && !latestVersion.equals(usedVersion)
+                && notifiedPlayers.wasNotified(player, latestVersion, System.currentTimeMillis(), renotifyAfter);
+    }
+
+    void markNotifiedOnJoin(UUID player) {
+        final String latestVersion = this.latestVersion;
+        if (notifyOncePerVersion && latestVersion != null && !latestVersion.equals(usedVersion)) {
+            notifiedPlayers.markNotified(player, latestVersion, System.currentTimeMillis());
+        }
+    }
+
+    private void invalidatePlayerMessages() {
+        joinMessage = null;
+        requesterMessage = null;
+    }
+
+    private UpdateCheckOutcome createOutcome(UpdateCheckSuccess success, long latency, @Nullable Exception exception) {
+        final String latestVersion = this.latestVersion;
+        return new UpdateCheckOutcome(success, getCheckResult(latestVersion), usedVersion, latestVersion, latestVersionSource, latency, exception);
+    }
+
+    /**
+     * Treats versions that are not newer than the used version as the used version
+     */
+    private String normalizeLatestVersion(String version) {
+        if (!usedVersion.equals(version) && parsedUsedVersion.compareTo(new DefaultArtifactVersion(version)) >= 0) {
+            return usedVersion;
+        }
+        return version;
+    }
 
-                if (finalUpdateCheckEvent.getSuccess() == UpdateCheckSuccess.SUCCESS) {
-                    getOnSuccess().accept(requesters, latestVersion);
+    private static CommandSender[] mergeRequesters(final Set<CommandSender> merged, final CommandSender[] requesters) {
+        if (requesters != null) {
+            for (final CommandSender requester : requesters) {
+                if (requester != null) {
+                    merged.add(requester);
                 }
+            }
+        }
+        return merged.toArray(new CommandSender[0]);
+    }
 
-                Bukkit.getPluginManager().callEvent(finalUpdateCheckEvent);
-            });
+    private void callCheckResult(final UpdateCheckSuccess success, final Exception exception, final CommandSender[] requesters,
+                                 final long compressedBytes, final long uncompressedBytes) {
+        if (success == UpdateCheckSuccess.SUCCESS) {
+            getOnSuccess().accept(requesters, latestVersion);
+        } else if (success == UpdateCheckSuccess.FAIL) {
+            getOnFail().accept(requesters, exception);
+        }
+        Bukkit.getPluginManager().callEvent(new UpdateCheckEvent(this, success).setRequesters(requesters).setTransferredBytes(compressedBytes, uncompressedBytes));
+    }
 
-        });
-        return this;
+    /**
+     * Uses the result from the shared cache if another server or plugin fetched it recently, otherwise fetches it and
+     * stores it in the shared cache
+     *
+     * @return Latest version
+     * @throws IOException if the shared cache had no usable result and all sources failed
+     */
+    private FetchedVersion fetchShared() throws IOException {
+        final SharedResultCache sharedCache = this.sharedCache;
+        if (sharedCache == null) {
+            return fetchFromSources();
+        }
+        final String key = endpoint.getCacheKey(ignorePrereleases);
+        try {
+            final String shared = sharedCache.get(key, sharedCacheTtl, SHARED_CACHE_LEASE);
+            if (shared != null) {
+                return new FetchedVersion(shared, null, 0, 0);
+            }
+        } catch (IOException exception) {
+            plugin.getLogger().log(Level.WARNING, "Could not read the shared update check cache", exception);
+        }
+        final FetchedVersion fetched;
+        try {
+            fetched = fetchFromSources();
+        } catch (IOException | RuntimeException exception) {
+            try {
+                sharedCache.release(key);
+            } catch (IOException releaseException) {
+                exception.addSuppressed(releaseException);
+            }
+            throw exception;
+        }
+        try {
+            sharedCache.put(key, fetched.getVersion(), System.currentTimeMillis());
+        } catch (IOException exception) {
+            plugin.getLogger().log(Level.WARNING, "Could not write the shared update check cache", exception);
+        }
+        return fetched;
+    }
+
+    /**
+     * Calls the VersionSupplier on the fetch executor
+     */
+    private String fetchSupplied() throws IOException {
+        final FutureTask<String> task = new FutureTask<>(supplier::getLatestVersionString);
+        fetchExecutor.execute(task);
+        try {
+            return task.get();
+        } catch (InterruptedException exception) {
+            task.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the update check");
+        } catch (ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Queries the main source together with the hedged sources, and then the fallback sources one after another until
+     * one of them returns a version. Sources with an open circuit breaker are skipped.
+     *
+     * @return Latest version returned by the first working source
+     * @throws IOException the last failure if all sources failed or were skipped
+     */
+    private FetchedVersion fetchFromSources() throws IOException {
+        IOException failure = null;
+        final List<SourceEndpoint> hedged = new ArrayList<>(hedgedEndpoints.size() + 1);
+        if (endpoint.getHealth().isAvailable(circuitOpenDuration)) {
+            hedged.add(endpoint);
+        }
+        for (SourceEndpoint hedgedEndpoint : hedgedEndpoints) {
+            if (hedgedEndpoint.getHealth().isAvailable(circuitOpenDuration)) {
+                hedged.add(hedgedEndpoint);
+            }
+        }
+        if (!hedged.isEmpty()) {
+            try {
+                return HedgedFetch.race(fetchExecutor, hedged, hedgeDelay, this::fetchTracked);
+            } catch (IOException exception) {
+                failure = exception;
+            }
+        }
+        final List<SourceEndpoint> attempted = new ArrayList<>(hedged);
+        for (SourceEndpoint fallback : fallbackEndpoints) {
+            if (!fallback.getHealth().isAvailable(circuitOpenDuration)) {
+                continue;
+            }
+            attempted.add(fallback);
+            try {
+                return HedgedFetch.race(fetchExecutor, Collections.singletonList(fallback), 0, this::fetchTracked);
+            } catch (IOException exception) {
+                failure = exception;
+            }
+        }
+        if (failure == null) {
+            failure = new IOException("All update check sources are unavailable because they failed too often");
+        }
+        throw deferIfRateLimited(attempted, failure);
+    }
+
+    /**
+     * Turns the failure into a {@link RateLimitedException} if all attempted sources are held back by their rate limit,
+     * so the check is deferred until the earliest of them allows requests again instead of failing
+     */
+    private static IOException deferIfRateLimited(List<SourceEndpoint> attempted, IOException failure) {
+        if (attempted.isEmpty()) {
+            return failure;
+        }
+        final long now = System.currentTimeMillis();
+        HostRateLimiter earliest = null;
+        long retryAt = Long.MAX_VALUE;
+        for (SourceEndpoint attemptedEndpoint : attempted) {
+            final HostRateLimiter limiter = HostRateLimiter.forUrl(attemptedEndpoint.getApiLink());
+            final long allowedAt = limiter.getAllowedAt(now);
+            if (allowedAt == 0) {
+                return failure;
+            }
+            if (allowedAt < retryAt) {
+                earliest = limiter;
+                retryAt = allowedAt;
+            }
+        }
+        return new RateLimitedException(earliest.getHost(), retryAt);
+    }
+
+    /**
+     * Same as {@link #fetchLatestVersion(SourceEndpoint, HedgedFetch.Call)}, but checks and updates the health of the endpoint
+     */
+    private FetchedVersion fetchTracked(SourceEndpoint endpoint, @Nullable HedgedFetch.Call call) throws IOException {
+        final SourceHealth health = endpoint.getHealth();
+        if (!health.tryAcquire(circuitOpenDuration)) {
+            throw new IOException(endpoint + " is unavailable because it failed too often");
+        }
+        final long start = System.nanoTime();
+        try {
+            final FetchedVersion fetched = fetchLatestVersion(endpoint, call);
+            health.recordSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return fetched;
+        } catch (IOException | RuntimeException exception) {
+            if (exception instanceof RateLimitedException || (call != null && call.isCancelled())) {
+                // Held back by the rate limit, or cancelled because another source answered first. This says nothing
+                // about the source's health
+                health.release();
+            } else {
+                health.recordFailure(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), circuitFailureThreshold);
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Requests the latest version from the API link. When conditional requests are enabled and the API link returned
+     * an ETag or Last-Modified header before, the previous version is reused if the server answers 304 Not Modified.
+     *
+     * @param endpoint   Endpoint to query
+     * @param call     Receives the started request so that it can be aborted from another thread, or null
+     * @return Latest version returned by the API link, together with the size of the response
+     * @throws IOException if the request failed
+     */
+    private FetchedVersion fetchLatestVersion(SourceEndpoint endpoint, @Nullable HedgedFetch.Call call) throws IOException {
+        final String apiLink = endpoint.getApiLink(ignorePrereleases);
+        final String cacheKey = endpoint.getCacheKey(ignorePrereleases);
+        final UpdateCheckCache.Entry cached = conditionalRequests ? cache.get(cacheKey) : null;
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("User-Agent", userAgentString);
+        headers.put("Accept-Encoding", ContentEncoding.ACCEPTED);
+        if (cached != null) {
+            if (cached.getETag() != null) {
+                headers.put("If-None-Match", cached.getETag());
+            }
+            if (cached.getLastModified() != null) {
+                headers.put("If-Modified-Since", cached.getLastModified());
+            }
+        }
+        final HostRateLimiter limiter = HostRateLimiter.forUrl(apiLink);
+        final long allowedAt = limiter.tryAcquire(System.currentTimeMillis());
+        if (allowedAt != 0) {
+            throw new RateLimitedException(limiter.getHost(), allowedAt);
+        }
+        final HttpTransport.Exchange response = HttpTransport.getDefault().send(apiLink, headers, timeout);
+        if (call != null) {
+            call.setExchange(response);
+        }
+        final long retryAt = limiter.update(response, System.currentTimeMillis());
+        if (retryAt != 0) {
+            response.abort();
+            throw new RateLimitedException(limiter.getHost(), retryAt);
+        }
+        if (cached != null && cached.hasValidators() && response.getStatusCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            response.abort();
+            return new FetchedVersion(cached.getLatestVersion(), endpoint.getSource(), 0, 0);
+        }
+        final int status = response.getStatusCode();
+        if (status != HttpURLConnection.HTTP_OK) {
+            // Redirects are followed by the transport, anything else would hand an error page to the mapper
+            response.abort();
+            throw new IOException("Server returned HTTP response code: " + status + " for URL: " + apiLink);
+        }
+        final String version;
+        final CountingInputStream compressed = new CountingInputStream(response.getBody());
+        final CountingInputStream uncompressed = new CountingInputStream(ContentEncoding.decode(compressed, response.getHeader("Content-Encoding")));
+        try (final InputStreamReader input = new InputStreamReader(uncompressed); final BufferedReader reader = new BufferedReader(input)) {
+            version = endpoint.getMapper(ignorePrereleases).apply(reader);
+        }
+        if (conditionalRequests) {
+            final String eTag = response.getHeader("ETag");
+            final String lastModified = response.getHeader("Last-Modified");
+            if (eTag != null || lastModified != null) {
+                cache.put(cacheKey, new UpdateCheckCache.Entry(eTag, lastModified, version));
+            }
+        }
+        return new FetchedVersion(version, endpoint.getSource(), compressed.getCount(), uncompressed.getCount());
+    }
+
+    /**
+     * Gets how many bytes of the response body were received by the last update check, before decompressing them.
+     * This is 0 when the last check failed, was answered with 304 Not Modified or used a {@link VersionSupplier}.
+     *
+     * @return Bytes received by the last update check
+     */
+    public long getLastCompressedBytes() {
+        return lastCompressedBytes;
+    }
+
+    /**
+     * Gets how many bytes of the response body were read by the last update check after decompressing them. When the
+     * server did not compress the response, this is the same as {@link #getLastCompressedBytes()}.
+     *
+     * @return Decompressed bytes read by the last update check
+     */
+    public long getLastUncompressedBytes() {
+        return lastUncompressedBytes;
     }
 
     /**
@@ -375,11 +1032,12 @@ public class UpdateChecker {
      * @return true if the latest found version is the one currently in use, otherwise false
      */
     public boolean isUsingLatestVersion() {
-        return usedVersion.equals(instance.latestVersion);
+        return usedVersion.equals(latestVersion);
     }
 
     /**
      * Checks whether one version is really newer than another according to the semantic versioning scheme, including letters.
+     * Parsed versions are kept in a bounded cache, so comparing the same version strings again does not parse them again.
      *
      * @param myVersion    One version string
      * @param otherVersion Another version string
@@ -391,6 +1049,24 @@ public class UpdateChecker {
         return used.compareTo(latest) < 0;
     }
 
+    /**
+     * Gets how often a version string was found in the parsed version cache used by {@link #isOtherVersionNewer(String, String)}
+     *
+     * @return Number of cache hits since the server started
+     */
+    public static long getVersionCacheHits() {
+        return VersionCache.getShared().getHits();
+    }
+
+    /**
+     * Gets how often a version string had to be parsed because it was not in the parsed version cache used by {@link #isOtherVersionNewer(String, String)}
+     *
+     * @return Number of cache misses since the server started
+     */
+    public static long getVersionCacheMisses() {
+        return VersionCache.getShared().getMisses();
+    }
+
     /**
      * Gets the task that will run when/after the update check fails.
      *
@@ -489,6 +1165,7 @@ public class UpdateChecker {
      */
     public UpdateChecker setChangelogLink(@Nullable String link) {
         changelogLink = link;
+        invalidatePlayerMessages();
         return this;
     }
 
@@ -511,6 +1188,7 @@ public class UpdateChecker {
     @NotNull
     public UpdateChecker setSupportLink(@Nullable String link) {
         this.supportLink = link;
+        invalidatePlayerMessages();
         return this;
     }
 
@@ -531,6 +1209,7 @@ public class UpdateChecker {
      */
     public UpdateChecker setDonationLink(@Nullable String donationLink) {
         this.donationLink = donationLink;
+        invalidatePlayerMessages();
         return this;
     }
 
@@ -540,6 +1219,10 @@ public class UpdateChecker {
      * @return Last successful UpdateCheckResult
      */
     public UpdateCheckResult getLastCheckResult() {
+        return getCheckResult(latestVersion);
+    }
+
+    private UpdateCheckResult getCheckResult(@Nullable String latestVersion) {
         if (latestVersion == null) {
             return UpdateCheckResult.UNKNOWN;
         }
@@ -559,6 +1242,37 @@ public class UpdateChecker {
         return latestVersion;
     }
 
+    /**
+     * Returns the source that returned the latest version, or null if all checks until yet have failed or a
+     * {@link VersionSupplier} is used.
+     *
+     * @return Source that returned the latest version
+     */
+    @Nullable
+    public UpdateCheckSource getLatestVersionSource() {
+        return latestVersionSource;
+    }
+
+    /**
+     * Returns until when the last check was deferred because the rate limit of all sources was reached. The check
+     * runs again automatically at that time.
+     *
+     * @return Time in milliseconds since the epoch when the deferred check runs again, or 0 if the last check was not deferred
+     */
+    public long getDeferredUntil() {
+        return deferredUntil;
+    }
+
+    /**
+     * Returns when the latest version was fetched successfully. This can be from before the server was restarted, as the
+     * last result is stored in the plugin's data folder.
+     *
+     * @return Time of the last successful check in milliseconds since the epoch, or 0 if all checks until yet have failed
+     */
+    public long getLastSuccessfulCheckTime() {
+        return lastSuccessfulFetch;
+    }
+
     /**
      * Returns the name/suffix of the free plugin version
      *
@@ -578,6 +1292,7 @@ public class UpdateChecker {
      */
     public UpdateChecker setNameFreeVersion(String nameFreeVersion) {
         this.nameFreeVersion = nameFreeVersion;
+        invalidatePlayerMessages();
         return this;
     }
 
@@ -600,6 +1315,7 @@ public class UpdateChecker {
      */
     public UpdateChecker setNamePaidVersion(String namePaidVersion) {
         this.namePaidVersion = namePaidVersion;
+        invalidatePlayerMessages();
         return this;
     }
 
@@ -623,12 +1339,15 @@ public class UpdateChecker {
     }
 
     /**
-     *  Gets the TaskScheduler instance used by the UpdateChecker
+     *  Gets the TaskScheduler instance used by the UpdateChecker that was created last
      *
-     * @return TaskScheduler instance used by the UpdateChecker
+     * @return TaskScheduler instance used by the UpdateChecker that was created last
+     * @deprecated Every UpdateChecker uses the TaskScheduler of its own plugin
      */
+    @Deprecated
     public static TaskScheduler getScheduler() {
-        return scheduler;
+        UpdateChecker latest = UpdateCheckerRegistry.getLatest();
+        return latest == null ? null : latest.scheduler;
     }
 
     /**
@@ -657,6 +1376,8 @@ public class UpdateChecker {
      */
     public UpdateChecker setUsedVersion(String usedVersion) {
         this.usedVersion = usedVersion;
+        this.parsedUsedVersion = new DefaultArtifactVersion(usedVersion);
+        invalidatePlayerMessages();
         return this;
     }
 
@@ -753,11 +1474,13 @@ public class UpdateChecker {
      */
     public UpdateChecker setUsingPaidVersion(boolean paidVersion) {
         usingPaidVersion = paidVersion;
+        invalidatePlayerMessages();
         return this;
     }
 
     /**
-     * Sets a task that will run when/after the update check has failed.
+     * Sets a task that will run when/after the update check has failed. It does not run when the check was deferred
+     * because of a rate limit, see {@link UpdateCheckSuccess#DEFERRED}.
      *
      * @param onFail Task that will run when/after the update check has failed.
      * @return UpdateChecker instance being ran
@@ -804,6 +1527,7 @@ public class UpdateChecker {
     public UpdateChecker setDownloadLink(@Nullable String downloadLink) {
         this.paidDownloadLink = null;
         this.freeDownloadLink = downloadLink;
+        invalidatePlayerMessages();
         return this;
     }
 
@@ -844,6 +1568,44 @@ public class UpdateChecker {
      */
     public UpdateChecker setFreeDownloadLink(@Nullable String freeDownloadLink) {
         this.freeDownloadLink = freeDownloadLink;
+        invalidatePlayerMessages();
+        return this;
+    }
+
+    /**
+     * Sets whether players should only be told once about each new version when they join. Players who were already
+     * told are skipped without checking their permission. Who was told is stored in the plugin's data folder, so it
+     * also works after a restart. Defaults to false.
+     *
+     * @param notifyOncePerVersion Whether to tell every player only once about each new version
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setNotifyOncePerVersion(boolean notifyOncePerVersion) {
+        this.notifyOncePerVersion = notifyOncePerVersion;
+        if (notifyOncePerVersion) {
+            notifiedPlayers.preload();
+        }
+        return this;
+    }
+
+    /**
+     * Returns whether players are only told once about each new version when they join
+     *
+     * @return true if players are only told once about each new version, otherwise false
+     */
+    public boolean isNotifyOncePerVersion() {
+        return notifyOncePerVersion;
+    }
+
+    /**
+     * Sets after how many days players are told again about a new version they were already told about, when using
+     * {@link #setNotifyOncePerVersion(boolean)}. Defaults to 0.
+     *
+     * @param days Amount of days until players are told again, or 0 to never tell them again
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setRenotifyAfterDays(double days) {
+        this.renotifyAfter = Math.max(0, (long) (days * TimeUnit.DAYS.toMillis(1)));
         return this;
     }
 
@@ -883,20 +1645,431 @@ public class UpdateChecker {
      */
     public UpdateChecker setPaidDownloadLink(@NotNull String link) {
         paidDownloadLink = link;
+        invalidatePlayerMessages();
         return this;
     }
 
     /**
-     * Sets the timeout for the HTTP(S) connection in milliseconds. 0 = use Java's
-     * default value
+     * Sets the connect and read timeout for the HTTP(S) connection in milliseconds. Defaults to 10 seconds, so that a
+     * server that never answers doesn't keep one of the few fetch threads busy forever. 0 = use Java's default value,
+     * which waits forever.
      *
      * @param timeout Timeout in milliseconds, or 0 to use Java's default value
+     * @return UpdateChecker instance being ran
      */
     public UpdateChecker setTimeout(int timeout) {
         this.timeout = timeout;
         return this;
     }
 
+    /**
+     * Returns whether conditional HTTP requests are used
+     *
+     * @return true when conditional HTTP requests are used, otherwise false
+     */
+    public boolean isConditionalRequests() {
+        return conditionalRequests;
+    }
+
+    /**
+     * Sets whether to send conditional HTTP requests (If-None-Match / If-Modified-Since) using the ETag and Last-Modified
+     * headers of the previous response. When the latest version did not change, the server can answer with 304 Not Modified
+     * instead of sending the whole response again, which usually also does not count against API rate limits. The headers
+     * are stored in the plugin's data folder so they survive restarts. Enabled by default.
+     *
+     * @param conditionalRequests Whether to send conditional HTTP requests
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setConditionalRequests(boolean conditionalRequests) {
+        this.conditionalRequests = conditionalRequests;
+        return this;
+    }
+
+    /**
+     * Adds another source that is queried for the same plugin in case the main source is slow or fails. Sources are
+     * queried in the order they were added: each one is only started when all previous ones failed or did not answer
+     * within the hedge delay, see {@link #setHedgeDelay(long)}. The first valid version is used and all requests that
+     * are still running are cancelled. For example, you can use {@link UpdateCheckSource#SPIGOT} as main source and
+     * add {@link UpdateCheckSource#SPIGET} with the same resource ID as hedged source.
+     *
+     * @param source    Source where to check for updates
+     * @param parameter Parameter for the update checker source. See {@link UpdateCheckSource} for more information
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker addHedgedSource(@NotNull UpdateCheckSource source, @NotNull String parameter) {
+        if (supplier != null) {
+            throw new IllegalStateException("Hedged sources can not be used together with a VersionSupplier.");
+        }
+        hedgedEndpoints.add(SourceEndpoint.of(source, parameter));
+        return this;
+    }
+
+    /**
+     * Adds a source that is only queried when the main source, all hedged sources and all previously added fallback
+     * sources failed. For example, you can use {@link UpdateCheckSource#GITHUB_RELEASE_TAG} as main source and add
+     * {@link UpdateCheckSource#HANGAR} and a {@link UpdateCheckSource#CUSTOM_URL} mirror as fallback sources.
+     * Sources that failed too often in a row are skipped for a while, see {@link #setCircuitBreaker(int, long)}.
+     *
+     * @param source    Source where to check for updates
+     * @param parameter Parameter for the update checker source. See {@link UpdateCheckSource} for more information
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker addFallbackSource(@NotNull UpdateCheckSource source, @NotNull String parameter) {
+        if (supplier != null) {
+            throw new IllegalStateException("Fallback sources can not be used together with a VersionSupplier.");
+        }
+        fallbackEndpoints.add(SourceEndpoint.of(source, parameter));
+        return this;
+    }
+
+    /**
+     * Lets the interval of periodic checks adapt to how often new versions are released. The UpdateChecker remembers
+     * when it saw new versions. Right after a release, it checks more often, and the longer no new version was
+     * released, the less often it checks, always staying between the given bounds. The interval given to
+     * {@link #checkEveryXHours(double)} is used until the first new version was seen. Must be set before calling
+     * checkEveryXHours. Not used when the periodic checks are run by the shared service.
+     *
+     * @param minHours Minimum amount of hours between checks
+     * @param maxHours Maximum amount of hours between checks, or 0 to disable the adaptive interval
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setAdaptiveInterval(double minHours, double maxHours) {
+        adaptiveMaxInterval = Math.max(0, (long) (maxHours * TimeUnit.HOURS.toMillis(1)));
+        adaptiveMinInterval = Math.min(adaptiveMaxInterval, Math.max(TICK_MILLIS, (long) (minHours * TimeUnit.HOURS.toMillis(1))));
+        return this;
+    }
+
+    /**
+     * Returns the current interval between periodic checks. With an adaptive interval (see
+     * {@link #setAdaptiveInterval(double, double)}), this changes after every successful check.
+     *
+     * @return Interval in milliseconds, or 0 if no periodic checks are running or they are run by the shared service
+     */
+    public long getCheckInterval() {
+        return checkInterval;
+    }
+
+    /**
+     * Sets whether periodic checks should be timed by real elapsed time instead of server ticks. By default, the
+     * interval is counted in ticks, so on a server running at 10 TPS, a check every 24 hours only happens every 48
+     * hours. With wall-clock scheduling, the checks are timed by a separate thread and only the results are sent on
+     * the main thread (or the global region thread on Folia). Must be set before calling
+     * {@link #checkEveryXHours(double)}. Defaults to false.
+     *
+     * @param wallClockScheduling Whether to time periodic checks by real elapsed time
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setWallClockScheduling(boolean wallClockScheduling) {
+        this.wallClockScheduling = wallClockScheduling;
+        return this;
+    }
+
+    /**
+     * Returns whether periodic checks are timed by real elapsed time instead of server ticks
+     *
+     * @return true when using wall-clock scheduling, otherwise false
+     */
+    public boolean isWallClockScheduling() {
+        return wallClockScheduling;
+    }
+
+    /**
+     * Sets a maximum delay for an extra check after {@link #checkEveryXHours(double)} was called. The check runs after a
+     * random delay between 0 and the given value, so use it instead of calling {@link #checkNow()} on startup to avoid
+     * that all servers of a network check at the same second after a restart. Must be set before calling
+     * checkEveryXHours. Defaults to 0, which means no extra check.
+     *
+     * @param initialDelay Maximum delay in milliseconds, or 0 to disable the extra check
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setInitialDelay(long initialDelay) {
+        this.initialDelay = Math.max(0, initialDelay);
+        return this;
+    }
+
+    /**
+     * Sets a maximum random delay that is added to every periodic check. The delay is picked again for every check and
+     * does not accumulate, so the checks don't drift away from the interval. It is capped at half the interval.
+     * Must be set before calling {@link #checkEveryXHours(double)}. Defaults to 0.
+     *
+     * @param jitter Maximum delay in milliseconds, or 0 to run the periodic checks exactly every interval
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setScheduleJitter(long jitter) {
+        this.scheduleJitter = Math.max(0, jitter);
+        return this;
+    }
+
+    /**
+     * Sets whether the first periodic check should be moved by an offset derived from the server's address, its folder,
+     * and the plugin and resource of this UpdateChecker. All servers and plugins that are started at the same time
+     * will then spread their periodic checks evenly over the interval, instead of all checking one interval after
+     * the restart. Must be set before calling {@link #checkEveryXHours(double)}. Defaults to false.
+     *
+     * @param stableScheduleOffset Whether to use an offset based on the server and plugin
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setStableScheduleOffset(boolean stableScheduleOffset) {
+        this.stableScheduleOffset = stableScheduleOffset;
+        return this;
+    }
+
+    /**
+     * Configures how failed checks are retried while periodic checks are running (see {@link #checkEveryXHours(double)}).
+     * After the n-th failed check in a row, the check is retried after a random delay between 0 and
+     * min(maxDelay, baseDelay * 2^(n-1)), unless the next regular check comes first. After a successful check, the
+     * regular interval is used again. Defaults to 1 minute and 1 hour. Retries are not used when the periodic checks
+     * are run by the shared service.
+     *
+     * @param baseDelay Delay in milliseconds for the first retry, or 0 to disable retries
+     * @param maxDelay  Maximum delay in milliseconds for a retry
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setRetryPolicy(long baseDelay, long maxDelay) {
+        this.retryBaseDelay = Math.max(0, baseDelay);
+        this.retryMaxDelay = Math.max(this.retryBaseDelay, maxDelay);
+        return this;
+    }
+
+    /**
+     * Returns the amount of failed checks in a row. Deferred checks are not counted.
+     *
+     * @return Failed checks since the last successful check
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Returns the delay of the retry that is currently scheduled because of failed checks
+     *
+     * @return Delay of the scheduled retry in milliseconds, or 0 if no retry is scheduled
+     */
+    public long getCurrentBackoff() {
+        return nextRetry > 0 ? currentBackoff : 0;
+    }
+
+    /**
+     * Returns when the failed check is retried
+     *
+     * @return Approximate time of the next retry in milliseconds since the epoch, or 0 if no retry is scheduled
+     */
+    public long getNextRetryTime() {
+        final long retry = nextRetry;
+        if (retry <= 0) {
+            return 0;
+        }
+        // The retry is scheduled on the schedule clock, which is not tied to the epoch
+        return System.currentTimeMillis() + Math.max(0, retry - getScheduleTime());
+    }
+
+    /**
+     * Configures when a source is skipped because it keeps failing. After the given amount of failed requests in a row,
+     * the source is not queried anymore until the given duration passed. Then a single request is sent to check whether
+     * it works again. Defaults to 3 failures and 5 minutes.
+     *
+     * @param failureThreshold Failed requests in a row until the source is skipped
+     * @param openDuration     Time in milliseconds to skip the source
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setCircuitBreaker(int failureThreshold, long openDuration) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.circuitFailureThreshold = failureThreshold;
+        this.circuitOpenDuration = Math.max(0, openDuration);
+        return this;
+    }
+
+    /**
+     * Gets the health of all sources in the order they are queried: the main source, the hedged sources and then the
+     * fallback sources. Returns an empty list when a {@link VersionSupplier} is used.
+     *
+     * @return Health of all sources
+     */
+    @NotNull
+    public List<SourceHealth> getSourceHealth() {
+        final List<SourceHealth> list = new ArrayList<>();
+        if (endpoint != null) {
+            list.add(endpoint.getHealth());
+        }
+        for (SourceEndpoint hedgedEndpoint : hedgedEndpoints) {
+            list.add(hedgedEndpoint.getHealth());
+        }
+        for (SourceEndpoint fallback : fallbackEndpoints) {
+            list.add(fallback.getHealth());
+        }
+        return list;
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for a source before also querying the next hedged source
+     *
+     * @return Hedge delay in milliseconds
+     */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * Sets the time in milliseconds to wait for a source to answer before also querying the next hedged source.
+     * 0 = query all sources at once. Defaults to 1000 milliseconds.
+     *
+     * @param hedgeDelay Hedge delay in milliseconds, or 0 to query all sources at once
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setHedgeDelay(long hedgeDelay) {
+        this.hedgeDelay = Math.max(0, hedgeDelay);
+        return this;
+    }
+
+    /**
+     * Returns the executor that sends the requests to the update check sources
+     *
+     * @return Executor that sends the requests
+     */
+    @NotNull
+    public Executor getFetchExecutor() {
+        return fetchExecutor;
+    }
+
+    /**
+     * Sets the executor that sends the requests to the update check sources and calls the {@link VersionSupplier}.
+     * Defaults to {@link UpdateCheckerRegistry#getDefaultFetchExecutor()}, which uses virtual threads on Java 21+.
+     * The executor is never used to wait for other tasks, so a bounded executor can't deadlock.
+     *
+     * @param executor Executor that sends the requests
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setFetchExecutor(@NotNull Executor executor) {
+        fetchExecutor = Objects.requireNonNull(executor, "executor");
+        return this;
+    }
+
+    /**
+     * Returns the minimum time between two requests to the API link in milliseconds
+     *
+     * @return Minimum time between two requests to the API link in milliseconds, or 0 if every check sends a request
+     */
+    public long getMinimumRefetchInterval() {
+        return minimumRefetchInterval;
+    }
+
+    /**
+     * Sets the minimum time between two requests to the API link in milliseconds. When a check is requested while the last
+     * successful check is more recent than this, the previous result is used instead of sending another request. 0 = every
+     * check sends a request (default). Checks requested while another check is still running are always merged into the
+     * running check.
+     * <p>
+     * The last successful result is stored in the plugin's data folder and restored when the UpdateChecker is created,
+     * so this also works as a time-to-live for the result across restarts: when the stored result is fresh enough, the
+     * first check after startup does not send any request. Otherwise the stored result is available right away, while
+     * the check refreshes it in the background.
+     *
+     * @param minimumRefetchInterval Minimum time between two requests in milliseconds, or 0 to disable
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setMinimumRefetchInterval(long minimumRefetchInterval) {
+        this.minimumRefetchInterval = Math.max(0, minimumRefetchInterval);
+        return this;
+    }
+
+    /**
+     * Returns whether prereleases are ignored
+     *
+     * @return true when prereleases are ignored, otherwise false
+     */
+    public boolean isIgnorePrereleases() {
+        return ignorePrereleases;
+    }
+
+    /**
+     * Sets whether releases marked as prerelease should be ignored. Only supported by {@link UpdateCheckSource#GITHUB_RELEASE_TAG},
+     * other sources ignore this setting. Draft releases are
+     * always ignored. Defaults to false.
+     *
+     * @param ignorePrereleases Whether to ignore prereleases
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setIgnorePrereleases(boolean ignorePrereleases) {
+        if (this.ignorePrereleases == ignorePrereleases) {
+            return this;
+        }
+        this.ignorePrereleases = ignorePrereleases;
+        // The previous result was read by the other mapper, use the one cached for this setting instead
+        latestVersion = null;
+        latestVersionSource = null;
+        lastSuccessfulFetch = 0;
+        restoreCachedResult();
+        return this;
+    }
+
+    /**
+     * Shares the results of this UpdateChecker with all other servers and plugins on the same machine that use the same
+     * directory. Results are stored by API link in a memory-mapped file inside the directory. As long as a result is
+     * younger than the TTL, no request is sent. When it is older, only one of them fetches it again while all others
+     * keep using the old result. The directory must be writable by all servers.
+     * <p>
+     * Server owners can also enable this for all plugins at once by starting the server with
+     * -Dspigotupdatechecker.shared-cache=/path/to/directory, which uses a TTL of one hour.
+     * Not supported when a {@link VersionSupplier} is used.
+     *
+     * @param directory Shared cache directory, or null to disable the shared cache
+     * @param ttl       Time in milliseconds a shared result is used without sending a request
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setSharedCache(@Nullable File directory, long ttl) {
+        this.sharedCacheTtl = Math.max(0, ttl);
+        final SharedResultCache previous = this.sharedCache;
+        this.sharedCache = null;
+        if (directory != null && endpoint != null) {
+            try {
+                this.sharedCache = SharedResultCache.open(directory);
+            } catch (IOException exception) {
+                plugin.getLogger().log(Level.WARNING, "Could not open the shared update check cache in " + directory, exception);
+            }
+        }
+        if (previous != null) {
+            previous.close();
+        }
+        return this;
+    }
+
+    /**
+     * Closes the shared cache once this UpdateChecker was unregistered
+     */
+    void closeSharedCache() {
+        final SharedResultCache sharedCache = this.sharedCache;
+        this.sharedCache = null;
+        if (sharedCache != null) {
+            sharedCache.close();
+        }
+    }
+
+    /**
+     * Returns whether periodic checks are run by the server-wide update check service
+     *
+     * @return true when periodic checks are run by the server-wide update check service, otherwise false
+     */
+    public boolean isUseSharedService() {
+        return useSharedService;
+    }
+
+    /**
+     * Sets whether periodic checks should be run by a server-wide update check service that is shared with all other
+     * plugins using the UpdateChecker, even when they shaded their own copy. The first plugin registers the service in
+     * Bukkit's ServicesManager and all others delegate to it. The service runs all periodic checks from one timer,
+     * prints one combined console summary for all plugins and sends one combined message to players on join, instead
+     * of one per plugin. Has to be set before calling {@link #checkEveryXHours(double)}. Defaults to false.
+     *
+     * @param useSharedService Whether to use the server-wide update check service
+     * @return UpdateChecker instance being ran
+     */
+    public UpdateChecker setUseSharedService(boolean useSharedService) {
+        this.useSharedService = useSharedService;
+        return this;
+    }
+
     /**
      * Sets the UserAgent string using a UserAgentBuilder
      *
@@ -18,6 +18,7 @@
 
 package com.jeff_media.updatechecker;
 
+import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.ClickEvent;
 import net.md_5.bungee.api.chat.ComponentBuilder;
 import net.md_5.bungee.api.chat.HoverEvent;
@@ -26,10 +27,13 @@ import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Stream;
@@ -37,7 +41,7 @@ import java.util.stream.Stream;
 class UpdateCheckerMessages {
 
     @NotNull
-    private static TextComponent createLink(@NotNull final String text, @NotNull final String link) {
+    static TextComponent createLink(@NotNull final String text, @NotNull final String link) {
         final ComponentBuilder lore = new ComponentBuilder("Link: ")
                 .bold(true)
                 .append(link)
@@ -54,16 +58,21 @@ class UpdateCheckerMessages {
 
     protected static void printCheckResultToConsole(UpdateCheckEvent event) {
 
-        final UpdateChecker instance = UpdateChecker.getInstance();
+        final UpdateChecker instance = event.getChecker();
         final Plugin plugin = instance.getPlugin();
 
+        if (event.getSuccess() == UpdateCheckSuccess.DEFERRED) {
+            plugin.getLogger().info(String.format("Rate limit reached, checking for updates again in %d minute(s).", getMinutesUntilDeferredCheck(instance)));
+            return;
+        }
+
         if (event.getSuccess() == UpdateCheckSuccess.FAIL || event.getResult() == UpdateCheckResult.UNKNOWN) {
             plugin.getLogger().warning("Could not check for updates.");
             return;
         }
 
         if (event.getResult() == UpdateCheckResult.RUNNING_LATEST_VERSION) {
-            if (UpdateChecker.getInstance().isSuppressUpToDateMessage()) return;
+            if (instance.isSuppressUpToDateMessage()) return;
             plugin.getLogger().info(String.format("You are using the latest version of %s.", plugin.getName()));
             return;
         }
@@ -108,23 +117,44 @@ class UpdateCheckerMessages {
         printNiceBoxToConsole(plugin.getLogger(), lines);
     }
 
-    protected static void printCheckResultToPlayer(Player player, boolean showMessageWhenLatestVersion) {
-        UpdateChecker instance = UpdateChecker.getInstance();
-        if (instance.getLastCheckResult() == UpdateCheckResult.NEW_VERSION_AVAILABLE) {
-            player.sendMessage(ChatColor.GRAY + "There is a new version of " + ChatColor.GOLD + instance.getPlugin().getName() + ChatColor.GRAY + " available.");
-            sendLinks(player);
-            player.sendMessage(ChatColor.DARK_GRAY + "Latest version: " + ChatColor.GREEN + instance.getLatestVersion() + ChatColor.DARK_GRAY + " | Your version: " + ChatColor.RED + instance.getUsedVersion());
-            player.sendMessage("");
-        } else if (instance.getLastCheckResult() == UpdateCheckResult.UNKNOWN) {
-            player.sendMessage(ChatColor.GOLD + instance.getPlugin().getName() + ChatColor.RED + " could not check for updates.");
+    static void printDeferredToPlayer(UpdateChecker instance, Player player) {
+        player.sendMessage(ChatColor.GOLD + instance.getPlugin().getName() + ChatColor.GRAY + " reached the rate limit, checking for updates again in "
+                + getMinutesUntilDeferredCheck(instance) + " minute(s).");
+    }
+
+    private static long getMinutesUntilDeferredCheck(UpdateChecker instance) {
+        return Math.max(1, TimeUnit.MILLISECONDS.toMinutes(instance.getDeferredUntil() - System.currentTimeMillis() + 59999));
+    }
+
+    protected static void printCheckResultToPlayer(UpdateChecker instance, Player player, boolean showMessageWhenLatestVersion) {
+        instance.getPlayerMessage(showMessageWhenLatestVersion).sendTo(player);
+    }
+
+    /**
+     * Renders the message that {@link #printCheckResultToPlayer(UpdateChecker, Player, boolean)} sends. The result is
+     * cached by the UpdateChecker until the result or any of the links change. The result and latest version are
+     * passed in, so that the message always matches the version it is cached for, even when a check finishes while
+     * rendering.
+     */
+    static PlayerMessage renderPlayerMessage(UpdateChecker instance, UpdateCheckResult result, @Nullable String latestVersion,
+                                             boolean showMessageWhenLatestVersion) {
+        final List<Object> lines = new ArrayList<>();
+        if (result == UpdateCheckResult.NEW_VERSION_AVAILABLE) {
+            lines.add(ChatColor.GRAY + "There is a new version of " + ChatColor.GOLD + instance.getPlugin().getName() + ChatColor.GRAY + " available.");
+            lines.add(createLinks(instance));
+            lines.add(ChatColor.DARK_GRAY + "Latest version: " + ChatColor.GREEN + latestVersion + ChatColor.DARK_GRAY + " | Your version: " + ChatColor.RED + instance.getUsedVersion());
+            lines.add("");
+        } else if (result == UpdateCheckResult.UNKNOWN) {
+            lines.add(ChatColor.GOLD + instance.getPlugin().getName() + ChatColor.RED + " could not check for updates.");
         } else {
             if (showMessageWhenLatestVersion) {
-                player.sendMessage(ChatColor.GREEN + "You are running the latest version of " + ChatColor.GOLD + instance.getPlugin().getName());
+                lines.add(ChatColor.GREEN + "You are running the latest version of " + ChatColor.GOLD + instance.getPlugin().getName());
             }
         }
+        return new PlayerMessage(latestVersion, lines.toArray());
     }
 
-    private static void printNiceBoxToConsole(Logger logger, List<String> lines) {
+    static void printNiceBoxToConsole(Logger logger, List<String> lines) {
         int longestLine = 0;
         for (String line : lines) {
             longestLine = Math.max(line.length(), longestLine);
@@ -142,9 +172,8 @@ class UpdateCheckerMessages {
         logger.log(Level.WARNING, dash.toString());
     }
 
-    private static void sendLinks(@NotNull final Player... players) {
-
-        UpdateChecker instance = UpdateChecker.getInstance();
+    @NotNull
+    private static TextComponent createLinks(@NotNull final UpdateChecker instance) {
 
         List<TextComponent> links = new ArrayList<>();
 
@@ -179,9 +208,37 @@ class UpdateCheckerMessages {
                 text.addExtra(placeholder);
             }
         }
+        return text;
+    }
+
+    /**
+     * Rendered chat message for one check result. Contains legacy text lines and link components, which are never
+     * modified after rendering, so the same message can be sent to many players.
+     */
+    static final class PlayerMessage {
+        private final String latestVersion;
+        private final Object[] lines;
+
+        private PlayerMessage(String latestVersion, Object[] lines) {
+            this.latestVersion = latestVersion;
+            this.lines = lines;
+        }
+
+        /**
+         * Checks whether this message was rendered for the given latest version
+         */
+        boolean isFor(@Nullable String latestVersion) {
+            return Objects.equals(this.latestVersion, latestVersion);
+        }
 
-        for (Player player : players) {
-            player.spigot().sendMessage(text);
+        void sendTo(Player player) {
+            for (Object line : lines) {
+                if (line instanceof String) {
+                    player.sendMessage((String) line);
+                } else {
+                    player.spigot().sendMessage((BaseComponent) line);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import com.github.Anon8281.universalScheduler.UniversalScheduler;
+import com.github.Anon8281.universalScheduler.scheduling.tasks.MyScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Keeps track of all UpdateCheckers, for example those of a core plugin and its add-ons. Every UpdateChecker is
+ * registered under its resource key (see {@link UpdateChecker#getResourceKey()}) when it is created, replacing any
+ * previous UpdateChecker for the same resource.
+ * <p>
+ * All registered UpdateCheckers share one executor for their requests (see {@link #getDefaultFetchExecutor()}), one
+ * timer for their periodic checks and one listener for join notifications. On Java 11 and newer, they also share one
+ * HTTP/2 client, so requests to the same host reuse one connection.
+ */
+public final class UpdateCheckerRegistry {
+
+    private static final long TIMER_PERIOD = 20;
+    private static final long WALL_CLOCK_PERIOD = TimeUnit.SECONDS.toMillis(1);
+    private static final int FETCH_THREADS = 4;
+
+    private static final Map<String, UpdateChecker> CHECKERS = new ConcurrentHashMap<>();
+    // Runs the checks, but waits for the requests that are sent through the fetch executors
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(daemonThreadFactory("UpdateChecker Worker"));
+    private static final Executor DEFAULT_FETCH_EXECUTOR = createDefaultFetchExecutor();
+
+    private static volatile UpdateChecker latest = null;
+    private static Plugin owner = null;
+    private static MyScheduledTask timerTask = null;
+    private static ScheduledExecutorService wallClockTimer = null;
+    private static volatile long ticks = 0;
+
+    private UpdateCheckerRegistry() {
+    }
+
+    /**
+     * Gets the UpdateChecker for the given resource
+     *
+     * @param resourceKey Resource key, see {@link UpdateChecker#getResourceKey()}
+     * @return UpdateChecker for the given resource, or null if there is none
+     */
+    @Nullable
+    public static UpdateChecker get(@NotNull String resourceKey) {
+        return CHECKERS.get(resourceKey);
+    }
+
+    /**
+     * Gets the UpdateChecker for the given source and parameter
+     *
+     * @param source    Source where to check for updates
+     * @param parameter Parameter for the update checker source
+     * @return UpdateChecker for the given resource, or null if there is none
+     */
+    @Nullable
+    public static UpdateChecker get(@NotNull UpdateCheckSource source, @NotNull String parameter) {
+        return get(UpdateChecker.getResourceKey(source, parameter));
+    }
+
+    /**
+     * Gets all registered UpdateCheckers
+     *
+     * @return Unmodifiable view of all registered UpdateCheckers
+     */
+    @NotNull
+    public static Collection<UpdateChecker> getAll() {
+        return Collections.unmodifiableCollection(CHECKERS.values());
+    }
+
+    /**
+     * Gets all UpdateCheckers created by the given plugin
+     *
+     * @param plugin Plugin
+     * @return UpdateCheckers created by the given plugin
+     */
+    @NotNull
+    public static List<UpdateChecker> getAll(@NotNull Plugin plugin) {
+        final List<UpdateChecker> list = new ArrayList<>();
+        for (UpdateChecker checker : CHECKERS.values()) {
+            if (checker.getPlugin() == plugin) {
+                list.add(checker);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Gets the executor that UpdateCheckers use to send their requests unless another one was set using
+     * {@link UpdateChecker#setFetchExecutor(Executor)}. On Java 21 and newer, it starts a new virtual thread for every
+     * request. On older versions, it is a small pool of daemon threads that is only used by the UpdateChecker, so
+     * slow requests never hold threads of Bukkit's shared async pool.
+     *
+     * @return Default executor for requests
+     */
+    @NotNull
+    public static Executor getDefaultFetchExecutor() {
+        return DEFAULT_FETCH_EXECUTOR;
+    }
+
+    private static Executor createDefaultFetchExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+            // Java 20 or older
+        }
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(FETCH_THREADS, FETCH_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreadFactory("UpdateChecker Fetch Worker"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    static @Nullable UpdateChecker getLatest() {
+        return latest;
+    }
+
+    static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
+    static long getTicks() {
+        return ticks;
+    }
+
+    static synchronized void register(UpdateChecker checker) {
+        final UpdateChecker previous = CHECKERS.put(checker.getResourceKey(), checker);
+        if (previous != null && previous != checker) {
+            previous.stop();
+            previous.closeSharedCache();
+        }
+        latest = checker;
+        RateLimitService.join(checker.getPlugin());
+        if (owner == null) {
+            setOwner(checker.getPlugin());
+        }
+    }
+
+    /**
+     * Removes all UpdateCheckers of a plugin that is being disabled. When the shared timer and listener belonged to
+     * that plugin, they are moved to the plugin of another UpdateChecker. The wall-clock timer is shut down once no
+     * UpdateChecker is left.
+     */
+    static synchronized void unregister(Plugin plugin) {
+        final Iterator<UpdateChecker> iterator = CHECKERS.values().iterator();
+        while (iterator.hasNext()) {
+            final UpdateChecker checker = iterator.next();
+            if (checker.getPlugin() == plugin) {
+                checker.stop();
+                checker.closeSharedCache();
+                iterator.remove();
+            }
+        }
+        if (latest != null && latest.getPlugin() == plugin) {
+            latest = null;
+        }
+        if (CHECKERS.isEmpty() && wallClockTimer != null) {
+            // Unlike the shared timer, this thread isn't owned by a plugin, so Bukkit doesn't stop it
+            wallClockTimer.shutdownNow();
+            wallClockTimer = null;
+        }
+        if (owner == plugin) {
+            // Bukkit cancels the timer and unregisters the listener of the disabled plugin itself
+            owner = null;
+            timerTask = null;
+            final Iterator<UpdateChecker> remaining = CHECKERS.values().iterator();
+            if (remaining.hasNext()) {
+                setOwner(remaining.next().getPlugin());
+            }
+        }
+    }
+
+    private static void setOwner(Plugin plugin) {
+        owner = plugin;
+        Bukkit.getPluginManager().registerEvents(new UpdateCheckListener(), plugin);
+        for (UpdateChecker checker : CHECKERS.values()) {
+            if (checker.isScheduled()) {
+                startTimer();
+                break;
+            }
+        }
+    }
+
+    /**
+     * Starts the shared timer for periodic checks if it isn't running yet
+     */
+    static synchronized void startTimer() {
+        if (timerTask != null || owner == null) {
+            return;
+        }
+        timerTask = UniversalScheduler.getScheduler(owner).runTaskTimer(UpdateCheckerRegistry::tick, TIMER_PERIOD, TIMER_PERIOD);
+    }
+
+    /**
+     * Starts the timer for periodic checks that use wall-clock scheduling if it isn't running yet. It only compares
+     * deadlines once per second, the checks themselves run on the executor.
+     */
+    static synchronized void startWallClockTimer() {
+        if (wallClockTimer != null) {
+            return;
+        }
+        wallClockTimer = Executors.newSingleThreadScheduledExecutor(daemonThreadFactory("UpdateChecker Timer"));
+        wallClockTimer.scheduleAtFixedRate(UpdateCheckerRegistry::wallClockTick, WALL_CLOCK_PERIOD, WALL_CLOCK_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    private static void wallClockTick() {
+        for (UpdateChecker checker : CHECKERS.values()) {
+            if (checker.isWallClockScheduling()) {
+                try {
+                    checker.runScheduledCheck();
+                } catch (RuntimeException exception) {
+                    // An exception would cancel the timer for all other UpdateCheckers
+                    checker.getPlugin().getLogger().log(Level.WARNING, "Could not run scheduled update check", exception);
+                }
+            }
+        }
+    }
+
+    private static void tick() {
+        final long now = ticks + TIMER_PERIOD;
+        ticks = now;
+        for (UpdateChecker checker : CHECKERS.values()) {
+            if (!checker.isWallClockScheduling()) {
+                checker.runScheduledCheck();
+            }
+        }
+        final UpdateCheckService service = UpdateCheckService.getProvider();
+        if (service != null) {
+            service.tick(now);
+        }
+    }
+}
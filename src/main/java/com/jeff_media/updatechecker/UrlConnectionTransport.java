@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * Transport for Java 8 using HttpURLConnection, which reuses connections through the JVM-wide keep-alive cache
+ */
+final class UrlConnectionTransport implements HttpTransport {
+
+    @Override
+    public Exchange send(String url, Map<String, String> headers, int timeout) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            connection.addRequestProperty(header.getKey(), header.getValue());
+        }
+        if (timeout > 0) {
+            connection.setConnectTimeout(timeout);
+            connection.setReadTimeout(timeout);
+        }
+        return new UrlConnectionExchange(connection);
+    }
+
+    private static final class UrlConnectionExchange implements Exchange {
+        private final HttpURLConnection connection;
+
+        private UrlConnectionExchange(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public int getStatusCode() throws IOException {
+            return connection.getResponseCode();
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(String name) throws IOException {
+            connection.getResponseCode();
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return connection.getInputStream();
+        }
+
+        @Override
+        public void abort() {
+            connection.disconnect();
+        }
+    }
+}
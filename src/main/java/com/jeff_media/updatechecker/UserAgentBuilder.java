@@ -20,6 +20,7 @@ package com.jeff_media.updatechecker;
 
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -32,9 +33,26 @@ import java.util.List;
 public class UserAgentBuilder {
 
     private final StringBuilder builder = new StringBuilder("JEFF-Media-GbR-SpigotUpdateChecker/").append(UpdateChecker.VERSION);
-    private final UpdateChecker instance = UpdateChecker.getInstance();
+    private final UpdateChecker instance;
     private final List<String> list = new ArrayList<>();
-    private final Plugin plugin = instance.getPlugin();
+    private final Plugin plugin;
+
+    /**
+     * Creates a UserAgentBuilder for the UpdateChecker that was created last
+     */
+    public UserAgentBuilder() {
+        this(UpdateChecker.getInstance());
+    }
+
+    /**
+     * Creates a UserAgentBuilder for the given UpdateChecker
+     *
+     * @param instance UpdateChecker whose plugin is used for the plugin specific parts
+     */
+    public UserAgentBuilder(@NotNull UpdateChecker instance) {
+        this.instance = instance;
+        this.plugin = instance.getPlugin();
+    }
 
     /**
      * Returns the default User-Agent, consisting of Plugin name and version, Server version and Bukkit version
@@ -45,6 +63,10 @@ public class UserAgentBuilder {
         return new UserAgentBuilder().addPluginNameAndVersion().addServerVersion().addBukkitVersion();
     }
 
+    static UserAgentBuilder getDefaultUserAgent(UpdateChecker instance) {
+        return new UserAgentBuilder(instance).addPluginNameAndVersion().addServerVersion().addBukkitVersion();
+    }
+
     /**
      * Adds the Bukkit version. For example "BukkitVersion/1.16.5-R0.1-SNAPSHOT"
      *
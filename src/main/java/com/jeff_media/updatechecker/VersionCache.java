@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe LRU cache of parsed versions, so that frequently compared version strings are only parsed once.
+ */
+final class VersionCache {
+
+    static final int DEFAULT_MAX_SIZE = 256;
+    private static final VersionCache SHARED = new VersionCache(DEFAULT_MAX_SIZE);
+
+    private final Map<String, ComparableVersion> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    VersionCache(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.cache = new LinkedHashMap<String, ComparableVersion>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, ComparableVersion> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    static VersionCache getShared() {
+        return SHARED;
+    }
+
+    ComparableVersion get(final String version) {
+        ComparableVersion parsed;
+        synchronized (cache) {
+            parsed = cache.get(version);
+        }
+        if (parsed != null) {
+            hits.incrementAndGet();
+            return parsed;
+        }
+        misses.incrementAndGet();
+        // Parse outside the lock. If another thread parsed the same version meanwhile, keep the cached one
+        parsed = new ComparableVersion(version);
+        synchronized (cache) {
+            final ComparableVersion existing = cache.putIfAbsent(version, parsed);
+            return existing != null ? existing : parsed;
+        }
+    }
+
+    long getHits() {
+        return hits.get();
+    }
+
+    long getMisses() {
+        return misses.get();
+    }
+}
@@ -19,7 +19,6 @@
 package com.jeff_media.updatechecker;
 
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
 import java.io.BufferedReader;
@@ -30,13 +29,9 @@ interface VersionMapper {
 
     ThrowingFunction<BufferedReader,String,IOException> SPIGET = reader -> new Gson().fromJson(reader, JsonObject.class).get("name").getAsString();
 
-    ThrowingFunction<BufferedReader,String,IOException> GITHUB_RELEASE_TAG = reader -> {
-        JsonArray array = new Gson().fromJson(reader, JsonArray.class);
-        if(array.size()==0) {
-            throw new IOException("Could not check for updates: no GitHub release found.");
-        }
-        JsonObject release = array.get(0).getAsJsonObject();
-        return release.get("tag_name").getAsString();
-    };
+    ThrowingFunction<BufferedReader,String,IOException> GITHUB_RELEASE_TAG = reader -> GitHubReleases.readFirstTag(reader, false);
+
+    ThrowingFunction<BufferedReader,String,IOException> GITHUB_LATEST_RELEASE_TAG = GitHubReleases::readSingleTag;
+
     ThrowingFunction<BufferedReader, String, IOException> SPIGOT = reader -> new Gson().fromJson(reader, JsonObject.class).get("current_version").getAsString();
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Selects the newest versions out of many version strings. Every version is only parsed once into a binary sort key
+ * (see ComparableVersion#toSortKey()), and the keys are compared byte by byte. For realistic version strings this gives
+ * the same order as {@link UpdateChecker#isOtherVersionNewer(String, String)}. It can differ for unusual inputs for
+ * which ComparableVersion#compareTo is not transitive, as no single sort order can agree with it there.
+ * Null and empty version strings are ignored.
+ */
+public final class Versions {
+
+    /**
+     * Inputs smaller than this are always handled on the calling thread, even when asking for parallel processing
+     */
+    private static final int PARALLEL_THRESHOLD = 512;
+
+    private Versions() {
+    }
+
+    /**
+     * Returns the newest version.
+     *
+     * @param versions Version strings
+     * @return Newest version string, or null if there are no versions
+     */
+    public static @Nullable String getNewest(@NotNull Iterable<String> versions) {
+        return getNewest(versions, false);
+    }
+
+    /**
+     * Returns the newest version.
+     *
+     * @param versions Version strings
+     * @return Newest version string, or null if there are no versions
+     */
+    public static @Nullable String getNewest(@NotNull Stream<String> versions) {
+        return getNewest(versions.collect(Collectors.toList()), false);
+    }
+
+    /**
+     * Returns the newest version. When parallel is true, large inputs are parsed and reduced in the common ForkJoinPool.
+     *
+     * @param versions Version strings
+     * @param parallel Whether to use the common ForkJoinPool for large inputs
+     * @return Newest version string, or null if there are no versions
+     */
+    public static @Nullable String getNewest(@NotNull Iterable<String> versions, boolean parallel) {
+        final Candidate[] candidates = parse(versions, parallel);
+        if (candidates.length == 0) {
+            return null;
+        }
+        if (parallel && candidates.length >= PARALLEL_THRESHOLD) {
+            return ForkJoinPool.commonPool().invoke(new NewestTask(candidates, 0, candidates.length)).version;
+        }
+        return newest(candidates, 0, candidates.length).version;
+    }
+
+    /**
+     * Returns the given amount of newest versions, newest first.
+     *
+     * @param versions Version strings
+     * @param amount   Maximum amount of versions to return
+     * @return Up to amount version strings, newest first
+     */
+    public static @NotNull List<String> getNewestN(@NotNull Iterable<String> versions, int amount) {
+        if (amount <= 0) {
+            return Collections.emptyList();
+        }
+        final Candidate[] candidates = parse(versions, false);
+        // Keeps the oldest of the current top versions at its head
+        final PriorityQueue<Candidate> top = new PriorityQueue<>(Math.min(amount, Math.max(candidates.length, 1)));
+        for (final Candidate candidate : candidates) {
+            if (top.size() < amount) {
+                top.add(candidate);
+            } else if (candidate.compareTo(top.peek()) > 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        }
+        final Candidate[] sorted = top.toArray(new Candidate[0]);
+        Arrays.sort(sorted, Collections.reverseOrder());
+        return toVersions(sorted);
+    }
+
+    /**
+     * Returns all versions sorted from newest to oldest.
+     *
+     * @param versions Version strings
+     * @return Sorted version strings, newest first
+     */
+    public static @NotNull List<String> sort(@NotNull Iterable<String> versions) {
+        return sort(versions, false);
+    }
+
+    /**
+     * Returns all versions sorted from newest to oldest. When parallel is true, large inputs are parsed and sorted in the common ForkJoinPool.
+     *
+     * @param versions Version strings
+     * @param parallel Whether to use the common ForkJoinPool for large inputs
+     * @return Sorted version strings, newest first
+     */
+    public static @NotNull List<String> sort(@NotNull Iterable<String> versions, boolean parallel) {
+        final Candidate[] candidates = parse(versions, parallel);
+        if (parallel && candidates.length >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(candidates, Collections.reverseOrder());
+        } else {
+            Arrays.sort(candidates, Collections.reverseOrder());
+        }
+        return toVersions(candidates);
+    }
+
+    private static Candidate[] parse(final Iterable<String> versions, final boolean parallel) {
+        final List<String> list = new ArrayList<>();
+        for (final String version : versions) {
+            if (version != null && !version.trim().isEmpty()) {
+                list.add(version);
+            }
+        }
+        final String[] strings = list.toArray(new String[0]);
+        final Candidate[] candidates = new Candidate[strings.length];
+        if (parallel && strings.length >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new ParseTask(strings, candidates, 0, strings.length));
+        } else {
+            for (int i = 0; i < strings.length; i++) {
+                candidates[i] = new Candidate(strings[i]);
+            }
+        }
+        return candidates;
+    }
+
+    private static Candidate newest(final Candidate[] candidates, final int from, final int to) {
+        Candidate newest = candidates[from];
+        for (int i = from + 1; i < to; i++) {
+            if (candidates[i].compareTo(newest) > 0) {
+                newest = candidates[i];
+            }
+        }
+        return newest;
+    }
+
+    private static List<String> toVersions(final Candidate[] candidates) {
+        final List<String> result = new ArrayList<>(candidates.length);
+        for (final Candidate candidate : candidates) {
+            result.add(candidate.version);
+        }
+        return result;
+    }
+
+    /**
+     * A version string together with its precomputed sort key. Sort keys give a consistent total order, so sorting
+     * never fails even for the few inputs where comparing ComparableVersions directly is not transitive.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        private final String version;
+        private final byte[] key;
+
+        private Candidate(final String version) {
+            this.version = version;
+            this.key = ComparableVersion.toSortKey(version.trim());
+        }
+
+        @Override
+        public int compareTo(final Candidate other) {
+            return ComparableVersion.compareSortKeys(key, other.key);
+        }
+    }
+
+    private static final class ParseTask extends RecursiveAction {
+        private final String[] versions;
+        private final Candidate[] candidates;
+        private final int from;
+        private final int to;
+
+        private ParseTask(final String[] versions, final Candidate[] candidates, final int from, final int to) {
+            this.versions = versions;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    candidates[i] = new Candidate(versions[i]);
+                }
+                return;
+            }
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ParseTask(versions, candidates, from, middle), new ParseTask(versions, candidates, middle, to));
+        }
+    }
+
+    private static final class NewestTask extends RecursiveTask<Candidate> {
+        private final Candidate[] candidates;
+        private final int from;
+        private final int to;
+
+        private NewestTask(final Candidate[] candidates, final int from, final int to) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Candidate compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return newest(candidates, from, to);
+            }
+            final int middle = (from + to) >>> 1;
+            final NewestTask left = new NewestTask(candidates, from, middle);
+            left.fork();
+            final Candidate right = new NewestTask(candidates, middle, to).compute();
+            final Candidate leftResult = left.join();
+            return right.compareTo(leftResult) > 0 ? right : leftResult;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport for Java 11+ using one shared HttpClient. Requests are sent asynchronously over HTTP/2 when the server
+ * supports it, so all requests to the same host share one multiplexed connection instead of doing a TLS handshake
+ * each time. Loaded by {@link HttpTransport#getDefault()} through reflection, since the rest of the library targets
+ * Java 8.
+ * <p>
+ * The request timeout of the HttpClient only covers the wait for the response headers. Reading the body has its own
+ * deadline of the same length, after which the body is closed and the read fails.
+ */
+final class HttpClientTransport implements HttpTransport {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    @Override
+    public Exchange send(String url, Map<String, String> headers, int timeout) throws IOException {
+        final HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(URI.create(url)).GET();
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                builder.header(header.getKey(), header.getValue());
+            }
+        } catch (IllegalArgumentException exception) {
+            throw new IOException("Invalid request to " + url, exception);
+        }
+        if (timeout > 0) {
+            builder.timeout(Duration.ofMillis(timeout));
+        }
+        return new HttpClientExchange(url, timeout, client.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream()));
+    }
+
+    private static final class HttpClientExchange implements Exchange {
+        private final String url;
+        private final int timeout;
+        private final CompletableFuture<HttpResponse<InputStream>> response;
+
+        private HttpClientExchange(String url, int timeout, CompletableFuture<HttpResponse<InputStream>> response) {
+            this.url = url;
+            this.timeout = timeout;
+            this.response = response;
+        }
+
+        private HttpResponse<InputStream> getResponse() throws IOException {
+            try {
+                return response.get();
+            } catch (InterruptedException exception) {
+                abort();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Update check was cancelled");
+            } catch (CancellationException exception) {
+                throw new InterruptedIOException("Update check was cancelled");
+            } catch (ExecutionException exception) {
+                final Throwable cause = exception.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException(cause);
+            }
+        }
+
+        @Override
+        public int getStatusCode() throws IOException {
+            return getResponse().statusCode();
+        }
+
+        @Nullable
+        @Override
+        public String getHeader(String name) throws IOException {
+            return getResponse().headers().firstValue(name).orElse(null);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            final HttpResponse<InputStream> httpResponse = getResponse();
+            if (httpResponse.statusCode() >= 400) {
+                httpResponse.body().close();
+                throw new IOException("Server returned HTTP response code: " + httpResponse.statusCode() + " for URL: " + url);
+            }
+            if (timeout <= 0) {
+                return httpResponse.body();
+            }
+            return new DeadlineInputStream(httpResponse.body(), timeout);
+        }
+
+        @Override
+        public void abort() {
+            if (!response.cancel(true) && !response.isCompletedExceptionally()) {
+                try {
+                    response.join().body().close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the body once the deadline has passed, which makes a blocked read fail
+     */
+    private static final class DeadlineInputStream extends FilterInputStream {
+        private final CompletableFuture<Void> deadline;
+        private volatile boolean timedOut = false;
+
+        private DeadlineInputStream(InputStream in, int timeout) {
+            super(in);
+            deadline = CompletableFuture.runAsync(this::expire, CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS));
+        }
+
+        private void expire() {
+            timedOut = true;
+            try {
+                in.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return checkDeadline(super.read());
+            } catch (IOException exception) {
+                throw translate(exception);
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                return checkDeadline(super.read(buffer, offset, length));
+            } catch (IOException exception) {
+                throw translate(exception);
+            }
+        }
+
+        private int checkDeadline(int result) throws IOException {
+            if (timedOut) {
+                throw new SocketTimeoutException("Read timed out");
+            }
+            return result;
+        }
+
+        private IOException translate(IOException exception) {
+            if (timedOut && !(exception instanceof SocketTimeoutException)) {
+                final SocketTimeoutException timeoutException = new SocketTimeoutException("Read timed out");
+                timeoutException.initCause(exception);
+                return timeoutException;
+            }
+            return exception;
+        }
+
+        @Override
+        public void close() throws IOException {
+            deadline.cancel(false);
+            super.close();
+        }
+    }
+}
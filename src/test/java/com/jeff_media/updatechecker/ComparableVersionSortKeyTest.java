@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The sort keys only have to agree with compareTo where compareTo is transitive, see
+ * {@link ComparableVersion#toSortKey()}. These are version strings as they are found on Spigot, GitHub and Hangar.
+ */
+class ComparableVersionSortKeyTest {
+
+    private static final String[] REALISTIC_VERSIONS = {
+            "1", "1.0", "1.0.0", "1.0.1", "1.1", "1.2-SNAPSHOT", "1.2-beta", "1.2-beta.2", "1.2-rc1", "1.2", "1.2.0.1",
+            "1.10", "1.20.4", "1.20.4-R0.1-SNAPSHOT", "2.0.0-alpha.1", "2.0.0-alpha.2", "2.0.0-rc.1", "2.0.0",
+            "2.0.0-hotfix", "2.0.0+build.7", "v2.1", "V2.1.3", "3.0.4", "3.0.4-dev", "3.0.4-b123", "4.0.0-pre1",
+            "4.0.0-M2", "10.0", "2023.12.1", "2024.1", "5.4.2-legacy", "7.3.1-1.19", "1.0.0-final", "1.0.0.release",
+            "20240101", "123456789012345678901234567890"
+    };
+
+    @Test
+    void agreesWithCompareTo() {
+        for (String left : REALISTIC_VERSIONS) {
+            final byte[] leftKey = ComparableVersion.toSortKey(left);
+            for (String right : REALISTIC_VERSIONS) {
+                final int expected = Integer.signum(new ComparableVersion(left).compareTo(new ComparableVersion(right)));
+                final int actual = Integer.signum(ComparableVersion.compareSortKeys(leftKey, ComparableVersion.toSortKey(right)));
+                assertEquals(expected, actual, left + " compared to " + right);
+            }
+        }
+    }
+
+    @Test
+    void instanceKeyMatchesStaticKey() {
+        for (String version : REALISTIC_VERSIONS) {
+            assertTrue(Arrays.equals(ComparableVersion.toSortKey(version), new ComparableVersion(version).toSortKey()), version);
+        }
+    }
+
+    @Test
+    void sortingByKeyOrdersByCompareTo() {
+        final String[] sorted = REALISTIC_VERSIONS.clone();
+        Arrays.sort(sorted, Comparator.comparing(ComparableVersion::toSortKey, ComparableVersion::compareSortKeys));
+        for (int i = 1; i < sorted.length; i++) {
+            final int order = new ComparableVersion(sorted[i - 1]).compareTo(new ComparableVersion(sorted[i]));
+            assertTrue(order <= 0, sorted[i - 1] + " should not be newer than " + sorted[i]);
+        }
+    }
+}
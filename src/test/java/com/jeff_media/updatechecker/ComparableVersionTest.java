@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2022 Alexander Majka (mfnalex), JEFF Media GbR
+ * Website: https://www.jeff-media.com
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.jeff_media.updatechecker;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ComparableVersionTest {
+
+    // Every version is older than the next one
+    private static final String[] QUALIFIER_ORDER = {
+            "1-alpha2snapshot", "1-alpha2", "1-alpha-123", "1-beta-2", "1-beta123", "1-m2", "1-m11", "1-rc", "1-cr2",
+            "1-rc123", "1-SNAPSHOT", "1", "1-sp", "1-sp2", "1-sp123", "1-abc", "1-def", "1-pom-1", "1-1-snapshot",
+            "1-1", "1-2", "1-123"
+    };
+
+    private static final String[] NUMBER_ORDER = {
+            "1", "1.1", "1.2", "1.9", "1.10", "1.10.1", "1.11", "2.0-alpha-1", "2.0-beta-1", "2.0-rc-1", "2.0",
+            "2.0.1", "10.0", "2147483648", "9223372036854775808", "18446744073709551616"
+    };
+
+    // Every version in a row is equal to the others in that row
+    private static final String[][] EQUAL = {
+            {"1", "1.0", "1.0.0", "1-ga", "1-final", "1-release", "1.0-ga"},
+            {"1.0-rc1", "1.0-cr1", "1.0-RC-1"},
+            {"1a1", "1-alpha-1", "1-alpha1"},
+            {"1b2", "1-beta-2"},
+            {"1m3", "1-milestone-3"},
+            {"2.0.0-SNAPSHOT", "2-snapshot", "2.0-Snapshot"}
+    };
+
+    @Test
+    void ordersQualifiers() {
+        assertAscending(QUALIFIER_ORDER);
+    }
+
+    @Test
+    void ordersNumbers() {
+        assertAscending(NUMBER_ORDER);
+    }
+
+    @Test
+    void treatsEquivalentVersionsAsEqual() {
+        for (String[] row : EQUAL) {
+            for (String left : row) {
+                for (String right : row) {
+                    final ComparableVersion leftVersion = new ComparableVersion(left);
+                    final ComparableVersion rightVersion = new ComparableVersion(right);
+                    assertEquals(0, leftVersion.compareTo(rightVersion), left + " should equal " + right);
+                    assertEquals(leftVersion, rightVersion, left + " should equal " + right);
+                    assertEquals(leftVersion.hashCode(), rightVersion.hashCode(), "hash code of " + left + " and " + right);
+                }
+            }
+        }
+    }
+
+    private static void assertAscending(String[] versions) {
+        for (int i = 0; i < versions.length; i++) {
+            for (int j = 0; j < versions.length; j++) {
+                final int expected = Integer.compare(i, j);
+                final int actual = Integer.signum(new ComparableVersion(versions[i]).compareTo(new ComparableVersion(versions[j])));
+                assertEquals(expected, actual, versions[i] + " compared to " + versions[j]);
+            }
+        }
+    }
+}